@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Creates and consumes one offer per payload size with artifacts pointing to the embedded payload server and prints
+# the download throughput and both checksums. Runs against the in-process mock connector unless the extra arguments
+# point to real connectors, which then need --payload.server.host set to an address the producer can reach.
+# usage: scripts/payload-sweep.sh [sizes] [extra args], e.g. scripts/payload-sweep.sh "1KB 1MB 100MB 1GB" after mvn package
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+sizes=${1:-1KB 64KB 1MB 16MB 256MB 1GB}
+shift || true
+port=${PORT:-18080}
+seed=${SEED:-42}
+jar=$(ls target/connector-test-*.jar | grep -v appcds | head -n 1)
+args=(--mock.connector.enabled=true --mock.connector.port="$port"
+      --producer.baseUrl="http://localhost:$port/producer" --consumer.baseUrl="http://localhost:$port/consumer"
+      --consumer.data.offerId= --consumer.data.download=streaming --producer.data.seed="$seed" --spring.jmx.enabled=false)
+
+printf '%-8s %14s %10s %14s  %s\n' size bytes ms bytes/s checksum
+for size in $sizes; do
+    out=$(java -jar "$jar" "${args[@]}" --producer.data.size="$size" "$@" 2>&1)
+    remote=$(sed -n 's/.*Remote data [A-Z0-9]*SUM=\([0-9a-f]*\).*/\1/p' <<< "$out" | head -n 1)
+    consumer=$(sed -n 's/.*Consumer data [A-Z0-9]*SUM=\([0-9a-f]*\).*/\1/p' <<< "$out" | head -n 1)
+    read -r bytes ms rate < <(sed -n 's/.*Downloaded \([0-9]*\) bytes in \([0-9]*\) ms, .*, \([0-9]*\) bytes\/s.*/\1 \2 \3/p' <<< "$out" | head -n 1) || true
+    if [[ -z "$consumer" ]]; then
+        echo "$size: no data consumed" >&2
+        grep -E 'ERROR|Exception' <<< "$out" | head -n 5 >&2
+        exit 1
+    fi
+    status=$([[ "$remote" == "$consumer" ]] && echo "$consumer" || echo "MISMATCH producer $remote consumer $consumer")
+    printf '%-8s %14s %10s %14s  %s\n' "$size" "$bytes" "$ms" "$rate" "$status"
+done
@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Time from JVM start to the first connector request of a one shot run against the in-process mock connector,
+# for the default setup, the fast-start profile and the fast-start profile with the AppCDS archive.
+# usage: scripts/startup-benchmark.sh [runs] after mvn -Pappcds package
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+runs=${1:-5}
+port=${PORT:-18089}
+boot_jar=$(ls target/connector-test-*.jar | grep -v appcds | head -n 1)
+cds_jar=$(ls target/appcds/connector-test-*-appcds.jar 2>/dev/null | head -n 1 || true)
+cds_archive=target/appcds/connector-test.jsa
+args=(--mock.connector.enabled=true --mock.connector.port="$port"
+      --producer.baseUrl="http://localhost:$port/producer" --consumer.baseUrl="http://localhost:$port/consumer"
+      --consumer.data.offerId= --producer.data.text=startup --producer.cache.enabled=false)
+
+measure() {
+    local name=$1; shift
+    local times=()
+    for ((i = 1; i <= runs; i++)); do
+        local ms
+        ms=$("$@" "${args[@]}" 2>&1 | sed -n 's/.*First connector request .* sent \([0-9]*\) ms after JVM start.*/\1/p' | head -n 1)
+        if [[ -z "$ms" ]]; then
+            echo "$name: run $i made no connector request" >&2
+            exit 1
+        fi
+        times+=("$ms")
+    done
+    local sorted
+    sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+    printf '%-22s min %6s ms  median %6s ms  max %6s ms  (%s)\n' "$name" "${sorted[0]}" "${sorted[$((runs / 2))]}" \
+        "${sorted[$((runs - 1))]}" "${times[*]}"
+}
+
+measure default java -jar "$boot_jar"
+measure fast-start java -jar "$boot_jar" --spring.profiles.active=fast-start
+if [[ -n "$cds_jar" && -f "$cds_archive" ]]; then
+    measure fast-start+appcds java -XX:SharedArchiveFile="$cds_archive" -jar "$cds_jar" --spring.profiles.active=fast-start
+else
+    echo "no AppCDS archive, build it with mvn -Pappcds package" >&2
+fi
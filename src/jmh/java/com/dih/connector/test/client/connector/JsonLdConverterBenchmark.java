@@ -0,0 +1,62 @@
+package com.dih.connector.test.client.connector;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jsonldjava.core.JsonLdOptions;
+import com.github.jsonldjava.core.JsonLdProcessor;
+import com.github.jsonldjava.utils.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former parse, compact, stringify and reparse conversion of offer descriptions with
+ * {@link JsonLdCompactingConverter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonLdConverterBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int representations;
+
+    private byte[] description;
+    private ObjectMapper objectMapper;
+    private JsonLdCompactingConverter converter;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = new ObjectMapper();
+        converter = new JsonLdCompactingConverter(objectMapper);
+        description = objectMapper.writeValueAsBytes(OfferDescriptions.create(objectMapper, representations));
+    }
+
+    @Benchmark
+    public JsonNode legacy() throws IOException {
+        var jsonLd = JsonUtils.fromInputStream(new ByteArrayInputStream(description));
+        var compacted = JsonLdProcessor.compact(jsonLd, new HashMap<>(), new JsonLdOptions());
+        return objectMapper.readTree(JsonUtils.toString(compacted));
+    }
+
+    @Benchmark
+    public JsonNode singlePass() throws IOException {
+        return converter.compact(new ByteArrayInputStream(description));
+    }
+}
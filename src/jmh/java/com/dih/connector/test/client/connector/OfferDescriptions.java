@@ -0,0 +1,44 @@
+package com.dih.connector.test.client.connector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Builds IDS offer descriptions shaped like the ones returned by {@code /api/ids/description}.
+ */
+public final class OfferDescriptions {
+    private static final String IDS = "https://w3id.org/idsa/core/";
+    private static final String AUTOGEN = "https://w3id.org/idsa/autogen/";
+
+    private OfferDescriptions() {
+    }
+
+    public static ObjectNode create(ObjectMapper objectMapper, int representations) {
+        var root = objectMapper.createObjectNode();
+        root.putObject("@context").put("ids", IDS).put("idsc", "https://w3id.org/idsa/code/");
+        root.put("@type", "ids:Resource").put("@id", "https://localhost/api/offers/1");
+        root.putArray("ids:title").addObject().put("@value", "testOffer").put("@type", "http://www.w3.org/2001/XMLSchema#string");
+        root.putObject("ids:created").put("@value", "2021-09-01T10:00:00.000Z").put("@type", "http://www.w3.org/2001/XMLSchema#dateTimeStamp");
+        var contractOffer = root.putObject("ids:contractOffer")
+                .put("@type", "ids:ContractOffer")
+                .put("@id", AUTOGEN + "contractOffer/1");
+        contractOffer.putObject("ids:permission")
+                .put("@type", "ids:Permission")
+                .put("@id", AUTOGEN + "permission/1")
+                .putArray("ids:action").addObject().put("@id", "https://w3id.org/idsa/code/USE");
+        var representationArray = root.putArray("ids:representation");
+        for (int i = 0; i < representations; i++) {
+            var representation = representationArray.addObject()
+                    .put("@type", "ids:Representation")
+                    .put("@id", AUTOGEN + "representation/" + i);
+            representation.putObject("ids:mediaType").put("@id", AUTOGEN + "mediaType/" + i)
+                    .put("ids:filenameExtension", "application/json");
+            representation.putObject("ids:instance")
+                    .put("@type", "ids:Artifact")
+                    .put("@id", "https://localhost/api/artifacts/" + i)
+                    .put("ids:fileName", "Artifact_" + i)
+                    .putObject("ids:byteSize").put("@value", 1024 * i).put("@type", "http://www.w3.org/2001/XMLSchema#integer");
+        }
+        return root;
+    }
+}
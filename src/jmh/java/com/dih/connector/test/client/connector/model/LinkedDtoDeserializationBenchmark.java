@@ -0,0 +1,79 @@
+package com.dih.connector.test.client.connector.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of connector responses with their pattern based {@code ZonedDateTime} fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinkedDtoDeserializationBenchmark {
+    private static final String DATE = "2021-09-01T10:00:00.000+0000";
+
+    @Param({"1", "100", "1000"})
+    private int catalogs;
+
+    private ObjectReader contractReader;
+    private ObjectReader catalogListReader;
+    private byte[] contract;
+    private byte[] catalogList;
+
+    @Setup
+    public void setup() throws IOException {
+        var objectMapper = new ObjectMapper().findAndRegisterModules();
+        contractReader = objectMapper.readerFor(ContractResponse.class);
+        catalogListReader = objectMapper.readerFor(new TypeReference<GetListResponse<CatalogList>>() { });
+
+        var contractNode = linked(objectMapper.createObjectNode(), "contracts")
+                .put("title", "Contract_1")
+                .put("start", DATE)
+                .put("end", "2999-01-01T00:00:00.000+0000");
+        contract = objectMapper.writeValueAsBytes(contractNode);
+
+        var listNode = objectMapper.createObjectNode();
+        var catalogArray = listNode.putObject("_embedded").putArray("catalogs");
+        for (int i = 0; i < catalogs; i++) {
+            linked(catalogArray.addObject(), "catalogs").put("title", "catalog_" + i).put("description", "catalog_" + i);
+        }
+        catalogList = objectMapper.writeValueAsBytes(listNode);
+    }
+
+    @Benchmark
+    public ContractResponse contractResponse() throws IOException {
+        return contractReader.readValue(contract);
+    }
+
+    @Benchmark
+    public GetListResponse<CatalogList> catalogList() throws IOException {
+        return catalogListReader.readValue(catalogList);
+    }
+
+    private static ObjectNode linked(ObjectNode node, String apiName) {
+        node.put("creationDate", DATE).put("modificationDate", DATE);
+        node.putObject("_links").putObject("self")
+                .put("href", "https://localhost/producer/api/" + apiName + "/" + UUID.randomUUID());
+        return node;
+    }
+}
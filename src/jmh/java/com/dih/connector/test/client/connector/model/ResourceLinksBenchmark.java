@@ -0,0 +1,37 @@
+package com.dih.connector.test.client.connector.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceLinksBenchmark {
+    private OfferResponse offerResponse;
+
+    @Setup
+    public void setup() {
+        offerResponse = new OfferResponse();
+        offerResponse.setLinks(new ResourceLinks(new ResourceLink(
+                "https://localhost/producer/api/offers/" + UUID.randomUUID())));
+    }
+
+    @Benchmark
+    public UUID getUUIDFromLink() {
+        return offerResponse.getUUIDFromLink();
+    }
+}
@@ -0,0 +1,32 @@
+package com.dih.connector.test.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContractAgreementPayloadBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    public JsonNode getContractAgreementPayload() {
+        return ConsumerOfferService.getContractAgreementPayload(objectMapper,
+                "https://w3id.org/idsa/autogen/permission/658ca300-4042-4804-839a-3c9548dcc26e",
+                "https://localhost/producer/api/artifacts/3f5a4b8e-8c1b-4d3e-9a57-0c2f6a1d9e11");
+    }
+}
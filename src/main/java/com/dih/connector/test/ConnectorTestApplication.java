@@ -8,6 +8,7 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
 @EnableFeignClients
 public class ConnectorTestApplication {
     public static void main(String[] args) {
-        SpringApplication.run(ConnectorTestApplication.class, args);
+        // embedded servers keep non-daemon threads alive, exit once the runner is done
+        System.exit(SpringApplication.exit(SpringApplication.run(ConnectorTestApplication.class, args)));
     }
 }
@@ -0,0 +1,116 @@
+package com.dih.connector.test.client.connector;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Count based circuit breaker. It opens when the failure rate of the last {@code window} calls reaches the threshold,
+ * rejects calls while open and lets a single probe through after {@code openDuration}. A successful probe closes it
+ * again. Every admitted call gets a {@link Permit}, only the probe decides the half-open state and results of calls
+ * admitted before the last state change are ignored.
+ */
+class CircuitBreaker {
+    enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final String name;
+    private final boolean[] outcomes;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int position;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long generation;
+
+    CircuitBreaker(String name, int window, int minCalls, double failureRateThreshold, Duration openDuration) {
+        this.name = name;
+        this.outcomes = new boolean[window];
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    synchronized Permit acquire() throws CircuitOpenException {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && probeInFlight)) {
+            throw new CircuitOpenException("Circuit breaker " + name + " is open");
+        }
+        if (state == State.HALF_OPEN) {
+            probeInFlight = true;
+            return new Permit(generation, true);
+        }
+        return new Permit(generation, false);
+    }
+
+    synchronized void record(Permit permit, boolean success) {
+        if (permit.probe) {
+            probeInFlight = false;
+            if (state == State.HALF_OPEN) {
+                if (success) {
+                    reset();
+                } else {
+                    open();
+                }
+            }
+            return;
+        }
+        if (permit.generation != generation || state != State.CLOSED) {
+            return;
+        }
+        if (calls == outcomes.length) {
+            failures -= outcomes[position] ? 0 : 1;
+        } else {
+            calls++;
+        }
+        outcomes[position] = success;
+        failures += success ? 0 : 1;
+        position = (position + 1) % outcomes.length;
+        if (calls >= minCalls && failures >= failureRateThreshold * calls) {
+            open();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        generation++;
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        generation++;
+        position = 0;
+        calls = 0;
+        failures = 0;
+    }
+
+    static final class Permit {
+        private final long generation;
+        private final boolean probe;
+
+        private Permit(long generation, boolean probe) {
+            this.generation = generation;
+            this.probe = probe;
+        }
+    }
+
+    static class CircuitOpenException extends IOException {
+        CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+}
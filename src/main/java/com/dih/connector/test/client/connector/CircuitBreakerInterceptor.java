@@ -0,0 +1,59 @@
+package com.dih.connector.test.client.connector;
+
+import lombok.RequiredArgsConstructor;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One circuit breaker per connector, identified by origin and first path segment since producer and consumer may
+ * share a host. Connection failures, 5xx and 429 responses count as failures.
+ */
+@RequiredArgsConstructor
+class CircuitBreakerInterceptor implements Interceptor {
+    private final ConnectorMetrics connectorMetrics;
+    private final int window;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final Duration openDuration;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        var name = breakerName(chain.request().url());
+        var breaker = breakers.computeIfAbsent(name, this::create);
+        CircuitBreaker.Permit permit;
+        try {
+            permit = breaker.acquire();
+        } catch (CircuitBreaker.CircuitOpenException e) {
+            connectorMetrics.recordBreakerRejection(name);
+            throw e;
+        }
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException e) {
+            breaker.record(permit, false);
+            throw e;
+        }
+        breaker.record(permit, response.code() < 500 && response.code() != 429);
+        return response;
+    }
+
+    private CircuitBreaker create(String name) {
+        var breaker = new CircuitBreaker(name, window, minCalls, failureRateThreshold, openDuration);
+        connectorMetrics.registerBreaker(name, breaker);
+        return breaker;
+    }
+
+    private static String breakerName(HttpUrl url) {
+        var segments = url.pathSegments();
+        var origin = url.scheme() + "://" + url.host() + ":" + url.port();
+        return segments.isEmpty() || segments.get(0).isEmpty() ? origin : origin + "/" + segments.get(0);
+    }
+}
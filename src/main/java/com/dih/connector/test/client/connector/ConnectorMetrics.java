@@ -0,0 +1,133 @@
+package com.dih.connector.test.client.connector;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Latency timers and error counters for calls to the connectors, tagged by client, client method and URI template.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConnectorMetrics {
+    public static final String REQUESTS = "connector.client.requests";
+    public static final String ERRORS = "connector.client.errors";
+    public static final String HEDGES = "connector.client.hedges";
+    public static final String RETRIES = "connector.client.retries";
+    public static final String BREAKER_REJECTIONS = "connector.client.breaker.rejections";
+    public static final String BREAKER_STATE = "connector.client.breaker.state";
+    public static final String FIRST_REQUEST = "connector.client.startup.first.request";
+    private static final Pattern UUID_SEGMENT = Pattern.compile("/[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}(?=/|$)");
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean firstRequestSent = new AtomicBoolean();
+
+    /**
+     * Marks the start of a call and returns its start time. The first call of the process is logged and exported with
+     * the time since JVM start, which is the time to first request of a one shot run.
+     */
+    public long requestStarted(String client, String method, String uri) {
+        if (!firstRequestSent.get() && firstRequestSent.compareAndSet(false, true)) {
+            var uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            log.info("First connector request {} {} {} sent {} ms after JVM start", client, method, uri, uptimeMillis);
+            TimeGauge.builder(FIRST_REQUEST, () -> uptimeMillis, TimeUnit.MILLISECONDS)
+                    .description("Time from JVM start to the first connector request")
+                    .register(meterRegistry);
+        }
+        return System.nanoTime();
+    }
+
+    public void record(String client, String method, String uri, int status, long nanos) {
+        Timer.builder(REQUESTS)
+                .tag("client", client)
+                .tag("method", method)
+                .tag("uri", uri)
+                .tag("status", String.valueOf(status))
+                .tag("outcome", outcome(status))
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (status >= 400) {
+            recordError(client, method, uri, "HTTP" + status);
+        }
+    }
+
+    public void recordError(String client, String method, String uri, Throwable error) {
+        recordError(client, method, uri, error.getClass().getSimpleName());
+    }
+
+    private void recordError(String client, String method, String uri, String error) {
+        Counter.builder(ERRORS)
+                .tag("client", client)
+                .tag("method", method)
+                .tag("uri", uri)
+                .tag("error", error)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Counts hedged requests, {@code result} is {@code fired} when a second copy was sent and {@code won} when that
+     * copy answered first.
+     */
+    public void recordHedge(String method, String uri, String result) {
+        Counter.builder(HEDGES)
+                .tag("method", method)
+                .tag("uri", uri)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordRetry(String method, String uri, String result) {
+        Counter.builder(RETRIES)
+                .tag("method", method)
+                .tag("uri", uri)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordBreakerRejection(String breaker) {
+        Counter.builder(BREAKER_REJECTIONS)
+                .tag("breaker", breaker)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    void registerBreaker(String breaker, CircuitBreaker circuitBreaker) {
+        Gauge.builder(BREAKER_STATE, circuitBreaker, b -> b.getState().ordinal())
+                .description("0 closed, 1 half open, 2 open")
+                .tag("breaker", breaker)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Turns a concrete request path into a low cardinality template by replacing resource ids.
+     */
+    public static String uriTemplate(String path) {
+        return UUID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return status >= 200 && status < 300 ? "SUCCESS" : "OTHER";
+    }
+}
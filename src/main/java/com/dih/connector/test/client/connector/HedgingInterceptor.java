@@ -0,0 +1,195 @@
+package com.dih.connector.test.client.connector;
+
+import lombok.RequiredArgsConstructor;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hedges idempotent requests: when no answer arrived after the configured latency percentile of the same request
+ * template, a second copy is sent and whichever response comes first is used. Both copies run on the
+ * {@code delegate} client, which has no interceptors of its own and an unbounded dispatcher, so hedged calls never
+ * wait in a dispatcher queue. The callers already bound how many are in flight. Only the latency of the primary
+ * copy is recorded, the faster of two copies would pull the percentile down and fire ever more hedges, so a
+ * primary that lost the race still runs to completion. Cancelling the calling call cancels both copies.
+ */
+@RequiredArgsConstructor
+class HedgingInterceptor implements Interceptor {
+    private static final long CANCEL_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private final OkHttpClient delegate;
+    private final ConnectorMetrics connectorMetrics;
+    private final double percentile;
+    private final Duration minDelay;
+    private final int minSamples;
+    private final Duration window;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        var request = chain.request();
+        if (!IdempotentRequests.isHedgeable(request)) {
+            return chain.proceed(request);
+        }
+        var uri = ConnectorMetrics.uriTemplate(request.url().encodedPath());
+        var latency = latencies.computeIfAbsent(request.method() + " " + uri, k -> new LatencyWindow());
+        var delayNanos = latency.delayNanos();
+        if (delayNanos < 0) {
+            var start = System.nanoTime();
+            var response = chain.proceed(request);
+            latency.record(System.nanoTime() - start);
+            return response;
+        }
+        return new HedgedCall(request, uri, latency).await(chain.call(), delayNanos);
+    }
+
+    /**
+     * Latencies of the current and the previous window, the delay comes from the previous window once it is
+     * complete so a single slow burst does not immediately move it.
+     */
+    private class LatencyWindow {
+        private volatile Histogram current = new ConcurrentHistogram(3);
+        private volatile Histogram previous;
+        private volatile long rolledAt = System.nanoTime();
+
+        void record(long nanos) {
+            var now = System.nanoTime();
+            if (now - rolledAt >= window.toNanos()) {
+                synchronized (this) {
+                    if (now - rolledAt >= window.toNanos()) {
+                        previous = current;
+                        current = new ConcurrentHistogram(3);
+                        rolledAt = now;
+                    }
+                }
+            }
+            current.recordValue(Math.max(0, nanos));
+        }
+
+        long delayNanos() {
+            var histogram = previous != null && previous.getTotalCount() >= minSamples ? previous : current;
+            if (histogram.getTotalCount() < minSamples) {
+                return -1;
+            }
+            return Math.max(minDelay.toNanos(), histogram.getValueAtPercentile(percentile));
+        }
+    }
+
+    /**
+     * The primary call and an optional hedge racing for the first response. The caller's call is polled, OkHttp has
+     * no cancellation callback.
+     */
+    private class HedgedCall {
+        private final Request request;
+        private final String uri;
+        private final LatencyWindow latency;
+        private final List<Call> calls = new ArrayList<>(2);
+        private long start;
+        private int running;
+        private Response response;
+        private boolean hedgeWon;
+        private IOException failure;
+
+        HedgedCall(Request request, String uri, LatencyWindow latency) {
+            this.request = request;
+            this.uri = uri;
+            this.latency = latency;
+        }
+
+        synchronized Response await(Call caller, long delayNanos) throws IOException {
+            start = System.nanoTime();
+            start(false);
+            try {
+                while (response == null && running > 0) {
+                    if (caller.isCanceled()) {
+                        cancel();
+                        throw new IOException("Canceled");
+                    }
+                    var now = System.nanoTime();
+                    if (calls.size() == 1 && now - start >= delayNanos) {
+                        connectorMetrics.recordHedge(request.method(), uri, "fired");
+                        start(true);
+                        continue;
+                    }
+                    var timeout = calls.size() == 1 ? Math.min(start + delayNanos - now, CANCEL_CHECK_NANOS) : CANCEL_CHECK_NANOS;
+                    TimeUnit.NANOSECONDS.timedWait(this, timeout);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new InterruptedIOException("Interrupted while waiting for " + request.url());
+            }
+            if (response == null) {
+                throw failure;
+            }
+            if (hedgeWon) {
+                connectorMetrics.recordHedge(request.method(), uri, "won");
+            }
+            return response;
+        }
+
+        private void cancel() {
+            calls.forEach(Call::cancel);
+            if (response != null) {
+                response.close();
+                response = null;
+            }
+        }
+
+        private void start(boolean hedge) {
+            var call = delegate.newCall(request);
+            calls.add(call);
+            running++;
+            call.enqueue(new Callback() {
+                @Override
+                public void onResponse(Call call, Response result) {
+                    synchronized (HedgedCall.this) {
+                        running--;
+                        recordPrimary(call, hedge);
+                        if (response != null) {
+                            result.close();
+                            return;
+                        }
+                        response = result;
+                        hedgeWon = hedge;
+                        if (!hedge) {
+                            calls.stream().filter(c -> c != call).forEach(Call::cancel);
+                        }
+                        HedgedCall.this.notifyAll();
+                    }
+                }
+
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    synchronized (HedgedCall.this) {
+                        running--;
+                        recordPrimary(call, hedge);
+                        if (failure == null || !call.isCanceled()) {
+                            failure = e;
+                        }
+                        HedgedCall.this.notifyAll();
+                    }
+                }
+            });
+        }
+
+        private void recordPrimary(Call call, boolean hedge) {
+            if (!hedge && !call.isCanceled()) {
+                latency.record(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.dih.connector.test.client.connector;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single pooled OkHttp transport shared by the Feign connector clients and the RestTemplates, so TLS connections
+ * to the producer and consumer are reused across calls.
+ */
+@Configuration
+public class HttpClientConfiguration {
+
+    @Value("${http.client.maxIdleConnections:20}")
+    private int maxIdleConnections;
+
+    @Value("${http.client.keepAlive:5m}")
+    private Duration keepAlive;
+
+    @Value("${http.client.connectTimeout:10s}")
+    private Duration connectTimeout;
+
+    @Value("${http.client.readTimeout:60s}")
+    private Duration readTimeout;
+
+    @Value("${http.client.http2:true}")
+    private boolean http2;
+
+    @Value("${http.client.maxRequests:256}")
+    private int maxRequests;
+
+    @Value("${http.client.maxRequestsPerHost:64}")
+    private int maxRequestsPerHost;
+
+    @Value("${http.client.retry.maxAttempts:1}")
+    private int retryMaxAttempts;
+
+    @Value("${http.client.retry.backoff:100ms}")
+    private Duration retryBackoff;
+
+    @Value("${http.client.retry.budgetRatio:0.1}")
+    private double retryBudgetRatio;
+
+    @Value("${http.client.retry.maxBudget:10}")
+    private double retryMaxBudget;
+
+    @Value("${http.client.breaker.enabled:false}")
+    private boolean breakerEnabled;
+
+    @Value("${http.client.breaker.window:20}")
+    private int breakerWindow;
+
+    @Value("${http.client.breaker.minCalls:10}")
+    private int breakerMinCalls;
+
+    @Value("${http.client.breaker.failureRateThreshold:0.5}")
+    private double breakerFailureRateThreshold;
+
+    @Value("${http.client.breaker.openDuration:10s}")
+    private Duration breakerOpenDuration;
+
+    @Value("${http.client.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    @Value("${http.client.hedge.percentile:95}")
+    private double hedgePercentile;
+
+    @Value("${http.client.hedge.minDelay:20ms}")
+    private Duration hedgeMinDelay;
+
+    @Value("${http.client.hedge.minSamples:20}")
+    private int hedgeMinSamples;
+
+    @Value("${http.client.hedge.window:1m}")
+    private Duration hedgeWindow;
+
+    @Value("${consumer.data.segments:4}")
+    private int segments;
+
+    /**
+     * Retries wrap the circuit breaker so every attempt is counted by it, hedging is innermost and races its copies
+     * on the plain client.
+     */
+    @Bean
+    public OkHttpClient okHttpClient(ConnectorMetrics connectorMetrics) {
+        var dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        var client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .protocols(http2 ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .build();
+        var builder = client.newBuilder();
+        if (retryMaxAttempts > 1) {
+            builder.addInterceptor(new RetryInterceptor(connectorMetrics,
+                    new RetryBudget(retryBudgetRatio, retryMaxBudget), retryMaxAttempts, retryBackoff));
+        }
+        if (breakerEnabled) {
+            builder.addInterceptor(new CircuitBreakerInterceptor(connectorMetrics, breakerWindow, breakerMinCalls,
+                    breakerFailureRateThreshold, breakerOpenDuration));
+        }
+        if (hedgeEnabled) {
+            // hedged calls run asynchronously, a dispatcher of their own keeps them out of the shared request limits
+            var hedgeDispatcher = new Dispatcher();
+            hedgeDispatcher.setMaxRequests(Integer.MAX_VALUE);
+            hedgeDispatcher.setMaxRequestsPerHost(Integer.MAX_VALUE);
+            builder.addInterceptor(new HedgingInterceptor(client.newBuilder().dispatcher(hedgeDispatcher).build(), connectorMetrics, hedgePercentile, hedgeMinDelay,
+                    hedgeMinSamples, hedgeWindow));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public feign.Client feignClient(OkHttpClient okHttpClient, ConnectorMetrics connectorMetrics) {
+        return new MetricsFeignClient(new feign.okhttp.OkHttpClient(okHttpClient), connectorMetrics);
+    }
+
+    @Bean
+    public ClientHttpRequestFactory clientHttpRequestFactory(OkHttpClient okHttpClient) {
+        return new OkHttp3ClientHttpRequestFactory(okHttpClient);
+    }
+
+    /**
+     * Segmented downloads need a connection per segment, over HTTP/2 all ranges would be multiplexed on one. The
+     * segments go over HTTP/1.1 with a pool of their own and without the retry, breaker and hedging interceptors,
+     * the downloader retries segments itself.
+     */
+    @Bean(name = "segments")
+    public RestTemplate restTemplateSegments(OkHttpClient okHttpClient, BasicAuthenticationInterceptor authInterceptor,
+                                             ConnectorMetrics connectorMetrics) {
+        var dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(segments);
+        dispatcher.setMaxRequestsPerHost(segments);
+        var builder = okHttpClient.newBuilder()
+                .protocols(List.of(Protocol.HTTP_1_1))
+                .connectionPool(new ConnectionPool(segments, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher);
+        builder.interceptors().clear();
+        var rt = new RestTemplate(new OkHttp3ClientHttpRequestFactory(builder.build()));
+        rt.getInterceptors().add(authInterceptor);
+        rt.getInterceptors().add(new MetricsRestTemplateInterceptor("segments", connectorMetrics));
+        return rt;
+    }
+}
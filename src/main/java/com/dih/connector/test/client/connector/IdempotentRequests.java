@@ -0,0 +1,26 @@
+package com.dih.connector.test.client.connector;
+
+import okhttp3.Request;
+
+/**
+ * Requests that can be sent more than once without side effects. The IDS description request is a POST but only
+ * reads the remote offer.
+ */
+final class IdempotentRequests {
+
+    private IdempotentRequests() {
+    }
+
+    static boolean isIdempotent(Request request) {
+        var method = request.method();
+        return "GET".equals(method) || "HEAD".equals(method)
+                || ("POST".equals(method) && request.url().encodedPath().endsWith("/api/ids/description"));
+    }
+
+    /**
+     * Artifact data and range requests are excluded from hedging, a second copy would transfer the payload again.
+     */
+    static boolean isHedgeable(Request request) {
+        return isIdempotent(request) && request.header("Range") == null && !request.url().encodedPath().endsWith("/data");
+    }
+}
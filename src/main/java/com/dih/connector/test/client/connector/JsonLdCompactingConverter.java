@@ -0,0 +1,58 @@
+package com.dih.connector.test.client.connector;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jsonldjava.core.JsonLdOptions;
+import com.github.jsonldjava.core.JsonLdProcessor;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Reads a JSON-LD response and compacts it with an empty context straight into a {@link JsonNode} tree. The body is
+ * parsed once and the compacted document is converted to a tree without serializing it to a String. Options and
+ * context are shared between calls, compaction of an already parsed document does not modify them.
+ */
+public class JsonLdCompactingConverter extends AbstractHttpMessageConverter<JsonNode> {
+    private static final Map<String, Object> EMPTY_CONTEXT = Collections.emptyMap();
+
+    private final ObjectMapper objectMapper;
+    private final JsonLdOptions options = new JsonLdOptions();
+
+    public JsonLdCompactingConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    public JsonNode compact(InputStream inputStream) throws IOException {
+        var jsonLd = objectMapper.readValue(inputStream, Object.class);
+        var compacted = JsonLdProcessor.compact(jsonLd, EMPTY_CONTEXT, options);
+        return objectMapper.valueToTree(compacted);
+    }
+
+    @Override
+    protected boolean supports(Class<?> aClass) {
+        return JsonNode.class.isAssignableFrom(aClass);
+    }
+
+    @Override
+    protected JsonNode readInternal(Class<? extends JsonNode> aClass, HttpInputMessage httpInputMessage) throws IOException, HttpMessageNotReadableException {
+        return compact(httpInputMessage.getBody());
+    }
+
+    @Override
+    protected void writeInternal(JsonNode jsonNode, HttpOutputMessage httpOutputMessage) throws IOException, HttpMessageNotWritableException {
+        try (var outputStream = new OutputStreamWriter(httpOutputMessage.getBody())) {
+            objectMapper.writeValue(outputStream, jsonNode);
+        }
+    }
+}
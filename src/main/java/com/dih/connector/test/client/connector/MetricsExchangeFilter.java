@@ -0,0 +1,30 @@
+package com.dih.connector.test.client.connector;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records {@link ConnectorMetrics} for WebClient calls. Like {@link MetricsRestTemplateInterceptor} the timer stops
+ * when the response headers arrive, streamed bodies are not included.
+ */
+@RequiredArgsConstructor
+public class MetricsExchangeFilter implements ExchangeFilterFunction {
+    private final String client;
+    private final ConnectorMetrics metrics;
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        var method = request.method().name();
+        var uri = ConnectorMetrics.uriTemplate(request.url().getPath());
+        return Mono.defer(() -> {
+            var start = metrics.requestStarted(client, method, uri);
+            return next.exchange(request)
+                    .doOnNext(response -> metrics.record(client, method, uri, response.rawStatusCode(), System.nanoTime() - start))
+                    .doOnError(e -> metrics.recordError(client, method, uri, e));
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.dih.connector.test.client.connector;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+
+/**
+ * Feign client decorator recording {@link ConnectorMetrics} for every connector API method.
+ */
+@RequiredArgsConstructor
+public class MetricsFeignClient implements Client {
+    private final Client delegate;
+    private final ConnectorMetrics metrics;
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        var template = request.requestTemplate();
+        var client = template.feignTarget() == null ? "feign" : template.feignTarget().name();
+        var method = template.methodMetadata() == null ? request.httpMethod().name() : template.methodMetadata().method().getName();
+        var uri = template.methodMetadata() == null ? ConnectorMetrics.uriTemplate(template.path()) : template.methodMetadata().template().path();
+        var start = metrics.requestStarted(client, method, uri);
+        try {
+            var response = delegate.execute(request, options);
+            metrics.record(client, method, uri, response.status(), System.nanoTime() - start);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            metrics.recordError(client, method, uri, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.dih.connector.test.client.connector;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Records {@link ConnectorMetrics} for RestTemplate calls. The timer stops when the response headers arrive, streamed
+ * bodies are not included.
+ */
+@RequiredArgsConstructor
+public class MetricsRestTemplateInterceptor implements ClientHttpRequestInterceptor {
+    private final String client;
+    private final ConnectorMetrics metrics;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        var method = request.getMethodValue();
+        var uri = ConnectorMetrics.uriTemplate(request.getURI().getPath());
+        var start = metrics.requestStarted(client, method, uri);
+        try {
+            var response = execution.execute(request, body);
+            metrics.record(client, method, uri, response.getRawStatusCode(), System.nanoTime() - start);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            metrics.recordError(client, method, uri, e);
+            throw e;
+        }
+    }
+}
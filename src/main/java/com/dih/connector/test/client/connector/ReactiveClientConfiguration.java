@@ -0,0 +1,68 @@
+package com.dih.connector.test.client.connector;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunctions;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking WebClient on Reactor Netty for the consumer flow, enabled with {@code consumer.client=reactive}.
+ * Requests are multiplexed on the Netty event loops, requests beyond {@code http.client.reactive.maxConnections}
+ * wait for a pooled connection instead of a thread.
+ */
+@Configuration
+@ConditionalOnProperty(name = "consumer.client", havingValue = "reactive")
+public class ReactiveClientConfiguration {
+
+    @Value("${consumer.username}")
+    private String consumerUsername;
+
+    @Value("${consumer.password}")
+    private String consumerPassword;
+
+    @Value("${http.client.keepAlive:5m}")
+    private Duration keepAlive;
+
+    @Value("${http.client.connectTimeout:10s}")
+    private Duration connectTimeout;
+
+    @Value("${http.client.readTimeout:60s}")
+    private Duration readTimeout;
+
+    @Value("${http.client.reactive.maxConnections:200}")
+    private int maxConnections;
+
+    @Value("${http.client.reactive.maxInMemorySize:16777216}")
+    private int maxInMemorySize;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider reactiveConnectionProvider() {
+        return ConnectionProvider.builder("connector")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(readTimeout)
+                .maxIdleTime(keepAlive)
+                .build();
+    }
+
+    @Bean
+    public WebClient connectorWebClient(ConnectionProvider reactiveConnectionProvider, ConnectorMetrics connectorMetrics) {
+        var httpClient = HttpClient.create(reactiveConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxInMemorySize))
+                .filter(ExchangeFilterFunctions.basicAuthentication(consumerUsername, consumerPassword))
+                .filter(new MetricsExchangeFilter("webclient", connectorMetrics))
+                .build();
+    }
+}
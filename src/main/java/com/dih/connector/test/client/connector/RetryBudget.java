@@ -0,0 +1,29 @@
+package com.dih.connector.test.client.connector;
+
+/**
+ * Limits retries to a share of the request volume: every request deposits {@code ratio} tokens, every retry takes
+ * one. The balance is capped, so a burst of failures after a quiet period can only spend a few retries.
+ */
+class RetryBudget {
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    RetryBudget(double ratio, double maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+package com.dih.connector.test.client.connector;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries idempotent requests after connection failures and 502, 503 and 504 responses with jittered backoff, as
+ * long as the {@link RetryBudget} allows it. Rejections by an open circuit breaker are not retried.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class RetryInterceptor implements Interceptor {
+    private final ConnectorMetrics connectorMetrics;
+    private final RetryBudget retryBudget;
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        var request = chain.request();
+        retryBudget.deposit();
+        if (!IdempotentRequests.isIdempotent(request)) {
+            return chain.proceed(request);
+        }
+        var uri = ConnectorMetrics.uriTemplate(request.url().encodedPath());
+        for (int attempt = 1; ; attempt++) {
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (e instanceof CircuitBreaker.CircuitOpenException || chain.call().isCanceled()
+                        || Thread.currentThread().isInterrupted() || attempt >= maxAttempts
+                        || !withdraw(request.method(), uri)) {
+                    throw e;
+                }
+                log.debug("Retrying {} {} after {}", request.method(), request.url(), e.toString());
+                pause(attempt);
+                continue;
+            }
+            if (!isRetryable(response.code()) || attempt >= maxAttempts || !withdraw(request.method(), uri)) {
+                return response;
+            }
+            log.debug("Retrying {} {} after status {}", request.method(), request.url(), response.code());
+            response.close();
+            pause(attempt);
+        }
+    }
+
+    private boolean withdraw(String method, String uri) {
+        if (retryBudget.tryWithdraw()) {
+            connectorMetrics.recordRetry(method, uri, "retried");
+            return true;
+        }
+        connectorMetrics.recordRetry(method, uri, "budget_exhausted");
+        return false;
+    }
+
+    private void pause(int attempt) throws InterruptedIOException {
+        var nanos = backoff.toNanos() * attempt;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(nanos / 2, nanos + 1) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+}
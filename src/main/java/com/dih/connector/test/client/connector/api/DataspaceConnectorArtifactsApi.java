@@ -3,6 +3,8 @@ package com.dih.connector.test.client.connector.api;
 import com.dih.connector.test.client.connector.DataspaceConnectorConfiguration;
 import com.dih.connector.test.client.connector.model.ArtifactDescription;
 import com.dih.connector.test.client.connector.model.ArtifactResponse;
+import com.dih.connector.test.client.connector.model.ArtifactsList;
+import com.dih.connector.test.client.connector.model.GetListResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.net.URI;
 import java.util.UUID;
@@ -29,4 +32,7 @@ public interface DataspaceConnectorArtifactsApi {
 
     @DeleteMapping(path = "/artifacts/{artifactId}")
     void deleteArtifact(URI baseUrl, @PathVariable("artifactId") UUID artifactId);
+
+    @GetMapping(path = "/artifacts")
+    GetListResponse<ArtifactsList> getAllArtifacts(URI baseUrl, @RequestParam("page") int page, @RequestParam("size") int size);
 }
@@ -26,4 +26,7 @@ public interface DataspaceConnectorCatalogsApi {
 
     @GetMapping(path = "/catalogs")
     GetListResponse<CatalogList> getAllCatalogs(URI baseUrl);
+
+    @GetMapping(path = "/catalogs/{catalogId}")
+    CatalogResponse getCatalog(URI baseUrl, @PathVariable("catalogId") UUID catalogId);
 }
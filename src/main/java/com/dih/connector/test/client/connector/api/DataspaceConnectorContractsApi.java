@@ -3,11 +3,16 @@ package com.dih.connector.test.client.connector.api;
 import com.dih.connector.test.client.connector.DataspaceConnectorConfiguration;
 import com.dih.connector.test.client.connector.model.ContractDescription;
 import com.dih.connector.test.client.connector.model.ContractResponse;
+import com.dih.connector.test.client.connector.model.ContractsList;
+import com.dih.connector.test.client.connector.model.GetListResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.net.URI;
 import java.util.List;
@@ -18,9 +23,18 @@ public interface DataspaceConnectorContractsApi {
     @PostMapping(path = "/contracts", consumes = MediaType.APPLICATION_JSON_VALUE)
     ContractResponse createContract(URI baseUrl, @RequestBody ContractDescription contractDescription);
 
+    @GetMapping(path = "/contracts/{id}")
+    ContractResponse getContract(URI baseUrl, @PathVariable("id") UUID id);
+
     @PostMapping(path = "/contracts/{id}/rules", consumes = MediaType.APPLICATION_JSON_VALUE)
     void linkRules(URI baseUrl, @PathVariable("id") UUID id, @RequestBody List<String> rules);
 
     @PostMapping(path = "/contracts/{id}/offers", consumes = MediaType.APPLICATION_JSON_VALUE)
     void linkOffers(URI baseUrl, @PathVariable("id") UUID id, @RequestBody List<String> offers);
+
+    @GetMapping(path = "/contracts")
+    GetListResponse<ContractsList> getAllContracts(URI baseUrl, @RequestParam("page") int page, @RequestParam("size") int size);
+
+    @DeleteMapping(path = "/contracts/{id}")
+    void deleteContract(URI baseUrl, @PathVariable("id") UUID id);
 }
@@ -4,6 +4,7 @@ import com.dih.connector.test.client.connector.DataspaceConnectorConfiguration;
 import com.dih.connector.test.client.connector.model.GetListResponse;
 import com.dih.connector.test.client.connector.model.OfferDescription;
 import com.dih.connector.test.client.connector.model.OfferResponse;
+import com.dih.connector.test.client.connector.model.OffersList;
 import com.dih.connector.test.client.connector.model.RepresentationsList;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.MediaType;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.net.URI;
 import java.util.List;
@@ -38,4 +40,7 @@ public interface DataspaceConnectorOffersApi {
 
     @GetMapping(path = "/offers/{offerId}/representations")
     GetListResponse<RepresentationsList> getAllRepresentations(URI baseUrl, @PathVariable("offerId") UUID offerId);
+
+    @GetMapping(path = "/offers")
+    GetListResponse<OffersList> getAllOffers(URI baseUrl, @RequestParam("page") int page, @RequestParam("size") int size);
 }
@@ -3,6 +3,7 @@ package com.dih.connector.test.client.connector.api;
 import com.dih.connector.test.client.connector.DataspaceConnectorConfiguration;
 import com.dih.connector.test.client.connector.model.ArtifactsList;
 import com.dih.connector.test.client.connector.model.GetListResponse;
+import com.dih.connector.test.client.connector.model.RepresentationsList;
 import com.dih.connector.test.client.connector.model.ResourceRepresentationDescription;
 import com.dih.connector.test.client.connector.model.ResourceRepresentationResponse;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.net.URI;
 import java.util.List;
@@ -38,4 +40,7 @@ public interface DataspaceConnectorRepresentationsApi {
 
     @GetMapping(path = "/representations/{representationId}/artifacts")
     GetListResponse<ArtifactsList> getAllArtifacts(URI baseUrl, @PathVariable("representationId") UUID representationId);
+
+    @GetMapping(path = "/representations")
+    GetListResponse<RepresentationsList> getAllRepresentations(URI baseUrl, @RequestParam("page") int page, @RequestParam("size") int size);
 }
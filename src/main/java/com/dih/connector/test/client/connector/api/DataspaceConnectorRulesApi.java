@@ -1,17 +1,33 @@
 package com.dih.connector.test.client.connector.api;
 
 import com.dih.connector.test.client.connector.DataspaceConnectorConfiguration;
+import com.dih.connector.test.client.connector.model.GetListResponse;
 import com.dih.connector.test.client.connector.model.RuleDescription;
 import com.dih.connector.test.client.connector.model.RuleResponse;
+import com.dih.connector.test.client.connector.model.RulesList;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.net.URI;
+import java.util.UUID;
 
 @FeignClient(name = "DataspaceConnectorRulesApi", url = "placeholder", configuration = DataspaceConnectorConfiguration.class)
 public interface DataspaceConnectorRulesApi {
     @PostMapping(path = "/rules", consumes = MediaType.APPLICATION_JSON_VALUE)
     RuleResponse registerRule(URI baseUrl, @RequestBody RuleDescription metadata);
+
+    @GetMapping(path = "/rules/{ruleId}")
+    RuleResponse getRule(URI baseUrl, @PathVariable("ruleId") UUID ruleId);
+
+    @GetMapping(path = "/rules")
+    GetListResponse<RulesList> getAllRules(URI baseUrl, @RequestParam("page") int page, @RequestParam("size") int size);
+
+    @DeleteMapping(path = "/rules/{ruleId}")
+    void deleteRule(URI baseUrl, @PathVariable("ruleId") UUID ruleId);
 }
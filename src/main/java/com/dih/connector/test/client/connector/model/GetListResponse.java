@@ -13,4 +13,5 @@ import lombok.NoArgsConstructor;
 public class GetListResponse<T> {
     @JsonProperty("_embedded")
     private T embedded;
+    private PageMetadata page;
 }
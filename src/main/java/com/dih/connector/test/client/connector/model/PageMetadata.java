@@ -0,0 +1,21 @@
+package com.dih.connector.test.client.connector.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PageMetadata {
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private int number;
+
+    public boolean hasNext() {
+        return number + 1 < totalPages;
+    }
+}
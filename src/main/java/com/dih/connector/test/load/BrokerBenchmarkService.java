@@ -0,0 +1,202 @@
+package com.dih.connector.test.load;
+
+import com.dih.connector.test.client.connector.api.DataspaceConnectorBrokerApi;
+import com.dih.connector.test.client.connector.api.DataspaceConnectorOffersApi;
+import com.dih.connector.test.client.connector.model.GetListResponse;
+import com.dih.connector.test.client.connector.model.LinkedDTO;
+import com.dih.connector.test.client.connector.model.OfferResponse;
+import com.dih.connector.test.client.connector.model.OffersList;
+import com.dih.connector.test.service.ExecutorFactory;
+import com.dih.connector.test.service.ProducerOfferService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Measures how fast a broker takes resource updates from the producer. The producer's test offers are topped up with
+ * bare offers to {@code broker.offers}, then {@code broker.updates} {@code updateResource} calls cycle through them in
+ * batches of {@code broker.batchSize}, each batch with up to {@code broker.concurrency} calls in flight. The update
+ * rate is logged every {@code broker.reportInterval} and per-call latencies are reported at the end. Optionally the
+ * connector is registered first and the resources are removed again afterwards.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BrokerBenchmarkService {
+    static final String REGISTER = "registerConnector";
+    static final String REGISTER_OFFER = "registerOffer";
+    static final String UPDATE = "updateResource";
+    static final String REMOVE = "removeResource";
+
+    @Value("${producer.baseUrl}")
+    private URI producerBaseUrl;
+
+    @Value("${broker.url:#{null}}")
+    private String brokerUrl;
+
+    @Value("${broker.offers:100}")
+    private int offers;
+
+    @Value("${broker.updates:1000}")
+    private long updates;
+
+    @Value("${broker.concurrency:8}")
+    private int concurrency;
+
+    @Value("${broker.batchSize:0}")
+    private int batchSize;
+
+    @Value("${broker.batchInterval:0s}")
+    private Duration batchInterval;
+
+    @Value("${broker.reportInterval:5s}")
+    private Duration reportInterval;
+
+    @Value("${broker.registerConnector:true}")
+    private boolean registerConnector;
+
+    @Value("${broker.removeResources:false}")
+    private boolean removeResources;
+
+    private final DataspaceConnectorBrokerApi brokerApi;
+    private final DataspaceConnectorOffersApi offersApi;
+    private final ProducerOfferService producerOfferService;
+
+    public LatencyStats run() throws InterruptedException {
+        if (Objects.isNull(brokerUrl)) {
+            throw new RuntimeException("broker.url is required for the broker benchmark");
+        }
+        if (offers < 1) {
+            throw new RuntimeException("broker.offers must be at least 1, got " + offers);
+        }
+        var apiUri = producerBaseUrl.resolve(producerBaseUrl.getPath() + "/api");
+        var stats = new LatencyStats();
+        // one task per call, so a bounded pool is what limits the calls in flight
+        var executor = ExecutorFactory.newExecutor("broker", concurrency, false);
+        try {
+            var resources = prepareOffers(apiUri, stats, executor);
+            log.info("Starting broker benchmark against {}: {} offers, {} updates, concurrency={}, batchSize={}",
+                    brokerUrl, resources.size(), updates, concurrency, batchSize);
+            if (registerConnector) {
+                call(stats, REGISTER, () -> brokerApi.registerOrUpdateConnector(apiUri, brokerUrl));
+            }
+            var start = System.nanoTime();
+            pushUpdates(apiUri, resources, stats, executor);
+            stats.report("Broker benchmark", System.nanoTime() - start);
+            if (removeResources) {
+                var removeStart = System.nanoTime();
+                runBatch(executor, resources, resource -> call(stats, REMOVE, () -> brokerApi.removeResource(apiUri, resource, brokerUrl)));
+                log.info("Removed {} resources from the broker in {} ms, {} failed", resources.size(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - removeStart), stats.getErrors(REMOVE));
+            }
+            return stats;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void pushUpdates(URI apiUri, List<String> resources, LatencyStats stats, ExecutorService executor) throws InterruptedException {
+        var done = new AtomicLong();
+        var reporter = Executors.newSingleThreadScheduledExecutor(ExecutorFactory.namedThreadFactory("broker-report"));
+        var lastCount = new AtomicLong();
+        reporter.scheduleAtFixedRate(() -> {
+            var count = done.get();
+            var seconds = reportInterval.toMillis() / 1000.0;
+            log.info("Broker updates: {}/{}, {} updates/s", count, updates, String.format("%.1f", (count - lastCount.getAndSet(count)) / seconds));
+        }, reportInterval.toMillis(), reportInterval.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            var size = batchSize > 0 ? batchSize : updates;
+            for (long from = 0; from < updates; from += size) {
+                if (from > 0 && !batchInterval.isZero()) {
+                    TimeUnit.NANOSECONDS.sleep(batchInterval.toNanos());
+                }
+                var batch = new ArrayList<String>();
+                for (long i = from; i < Math.min(updates, from + size); i++) {
+                    batch.add(resources.get((int) (i % resources.size())));
+                }
+                runBatch(executor, batch, resource -> {
+                    call(stats, UPDATE, () -> brokerApi.updateResource(apiUri, resource, brokerUrl));
+                    done.incrementAndGet();
+                });
+            }
+        } finally {
+            reporter.shutdownNow();
+        }
+    }
+
+    /**
+     * Uses the producer's existing test offers and registers bare offers for the missing ones.
+     */
+    private List<String> prepareOffers(URI apiUri, LatencyStats stats, ExecutorService executor) {
+        var resources = new ArrayList<String>();
+        for (int page = 0; resources.size() < offers; page++) {
+            var response = offersApi.getAllOffers(apiUri, page, 100);
+            Optional.ofNullable(response).map(GetListResponse::getEmbedded).map(OffersList::getResources).orElseGet(List::of).stream()
+                    .filter(offer -> Optional.ofNullable(offer.getTitle()).map(t -> t.startsWith(ProducerOfferService.OFFER_PREFIX)).orElse(false))
+                    .map(LinkedDTO::getSelfHref)
+                    .limit(offers - resources.size())
+                    .forEach(resources::add);
+            if (response == null || response.getPage() == null || !response.getPage().hasNext()) {
+                break;
+            }
+        }
+        var missing = offers - resources.size();
+        if (missing > 0) {
+            log.info("Registering {} offers for the broker benchmark", missing);
+            var created = new ArrayList<CompletableFuture<Optional<String>>>();
+            for (int i = 0; i < missing; i++) {
+                created.add(CompletableFuture.supplyAsync(() -> call(stats, REGISTER_OFFER, producerOfferService::registerOffer)
+                        .map(OfferResponse::getSelfHref), executor));
+            }
+            created.stream().map(CompletableFuture::join).flatMap(Optional::stream).forEach(resources::add);
+            if (stats.getErrors(REGISTER_OFFER) > 0) {
+                log.warn("{} of {} offers could not be registered", stats.getErrors(REGISTER_OFFER), missing);
+            }
+        }
+        if (resources.isEmpty()) {
+            throw new RuntimeException("No offers to update on the broker");
+        }
+        return resources;
+    }
+
+    private static void runBatch(ExecutorService executor, List<String> resources, Consumer<String> action) {
+        CompletableFuture.allOf(resources.stream()
+                .map(resource -> CompletableFuture.runAsync(() -> action.accept(resource), executor))
+                .toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static void call(LatencyStats stats, String name, Runnable call) {
+        call(stats, name, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private static <T> Optional<T> call(LatencyStats stats, String name, Supplier<T> call) {
+        var start = System.nanoTime();
+        try {
+            var result = call.get();
+            stats.record(name, System.nanoTime() - start);
+            return Optional.ofNullable(result);
+        } catch (RuntimeException e) {
+            log.warn("{} failed: {}", name, e.getMessage());
+            stats.recordError(name);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.dih.connector.test.load;
+
+import com.dih.connector.test.service.ExecutorFactory;
+import com.dih.connector.test.service.ProducerOfferService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Spreads a load test over several {@link DistributedWorker} processes. The coordinator waits on
+ * {@code distributed.port} until {@code distributed.workers} workers have connected, splits the offers to create,
+ * the offers to consume and the {@code load.iterations} among them and merges their histograms into one report.
+ * Every worker runs {@code load.concurrency} flows. Connections that do not open with the worker hello are not counted
+ * and a worker has {@code distributed.resultTimeout}, on top of {@code load.duration} when set, to report back. The
+ * protocol has no authentication, so the coordinator only listens on {@code distributed.bindAddress}, loopback by
+ * default.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DistributedCoordinator {
+    private static final Duration HELLO_TIMEOUT = Duration.ofSeconds(10);
+
+    @Value("${distributed.port:7070}")
+    private int port;
+
+    @Value("${distributed.bindAddress:127.0.0.1}")
+    private String bindAddress;
+
+    @Value("${distributed.workers:2}")
+    private int workers;
+
+    @Value("${distributed.joinTimeout:2m}")
+    private Duration joinTimeout;
+
+    @Value("${distributed.resultTimeout:30m}")
+    private Duration resultTimeout;
+
+    @Value("${distributed.createOffers:0}")
+    private int createOffers;
+
+    @Value("${distributed.offerIds:}")
+    private List<UUID> offerIds;
+
+    @Value("${load.iterations:#{null}}")
+    private Long iterations;
+
+    @Value("${load.concurrency:10}")
+    private int concurrency;
+
+    @Value("${load.duration:#{null}}")
+    private Duration duration;
+
+    private final ProducerOfferService producerOfferService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * @param offerId the configured offer, consumed when {@code distributed.offerIds} is empty. Without both an offer
+     *                is created unless the workers create their own.
+     */
+    public LatencyStats run(UUID offerId) throws IOException, InterruptedException {
+        var totalIterations = LoadTestService.iterations(iterations, duration);
+        var offers = offerIds;
+        if (offers.isEmpty() && Objects.nonNull(offerId)) {
+            offers = List.of(offerId);
+        } else if (offers.isEmpty() && createOffers == 0) {
+            offers = List.of(producerOfferService.createOffer());
+        }
+        var connections = new ArrayList<WorkerConnection>();
+        try (var server = new ServerSocket(port, 0, InetAddress.getByName(bindAddress))) {
+            server.setSoTimeout((int) joinTimeout.toMillis());
+            log.info("Waiting for {} workers on {}", workers, server.getLocalSocketAddress());
+            while (connections.size() < workers) {
+                var connection = join(server.accept());
+                if (Objects.nonNull(connection)) {
+                    connections.add(connection);
+                    log.info("Worker {} of {} joined from {}", connections.size(), workers, connection.socket.getRemoteSocketAddress());
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            close(connections);
+            throw new RuntimeException("Only " + connections.size() + " of " + workers + " workers joined within " + joinTimeout);
+        }
+        var executor = ExecutorFactory.newExecutor("coordinator", workers, false);
+        try {
+            var start = System.nanoTime();
+            var results = new ArrayList<Future<WorkerResult>>();
+            for (int i = 0; i < workers; i++) {
+                var connection = connections.get(i);
+                var task = task(i, offers, totalIterations);
+                results.add(executor.submit(() -> exchange(connection, task)));
+            }
+            var stats = new LatencyStats();
+            for (var future : results) {
+                merge(stats, future.get());
+            }
+            stats.report("Distributed load test with " + workers + " workers", System.nanoTime() - start);
+            return stats;
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Worker exchange failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            close(connections);
+        }
+    }
+
+    private WorkerTask task(int worker, List<UUID> offers, long iterations) {
+        // with at least one offer per worker every worker gets its own offers, otherwise all of them share them
+        var workerOffers = offers.size() < workers ? offers : IntStream.range(0, offers.size())
+                .filter(i -> i % workers == worker)
+                .mapToObj(offers::get)
+                .collect(Collectors.toList());
+        return new WorkerTask(worker, workers, (int) share(createOffers, worker), workerOffers,
+                share(iterations, worker), concurrency, Objects.isNull(duration) ? null : duration.toMillis());
+    }
+
+    private long share(long total, int worker) {
+        return total / workers + (worker < total % workers ? 1 : 0);
+    }
+
+    /**
+     * Only connections that open with the worker hello count as workers, anything else is closed again.
+     */
+    private WorkerConnection join(Socket socket) {
+        try {
+            socket.setSoTimeout((int) HELLO_TIMEOUT.toMillis());
+            var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            var hello = reader.readLine();
+            if (DistributedWorker.HELLO.equals(hello)) {
+                return new WorkerConnection(socket, reader);
+            }
+            log.warn("Ignoring connection from {}: expected {}, got {}", socket.getRemoteSocketAddress(), DistributedWorker.HELLO, hello);
+        } catch (IOException e) {
+            log.warn("Ignoring connection from {}: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        }
+        close(List.of(new WorkerConnection(socket, null)));
+        return null;
+    }
+
+    private WorkerResult exchange(WorkerConnection connection, WorkerTask task) throws IOException {
+        var socket = connection.socket;
+        var writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        writer.write(objectMapper.writeValueAsString(task));
+        writer.newLine();
+        writer.flush();
+        // workers only answer at the end, a hung worker must not block the coordinator forever
+        var timeout = Objects.isNull(duration) ? resultTimeout : duration.plus(resultTimeout);
+        socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, timeout.toMillis()));
+        String line;
+        try {
+            line = connection.reader.readLine();
+        } catch (SocketTimeoutException e) {
+            throw new IOException("Worker " + (task.getWorker() + 1) + " at " + socket.getRemoteSocketAddress() + " sent no result within " + timeout);
+        }
+        if (Objects.isNull(line)) {
+            throw new IOException("Worker " + (task.getWorker() + 1) + " at " + socket.getRemoteSocketAddress() + " disconnected");
+        }
+        return objectMapper.readValue(line, WorkerResult.class);
+    }
+
+    private void merge(LatencyStats stats, WorkerResult result) {
+        var flows = 0L;
+        for (var name : result.getErrors().keySet()) {
+            var histogram = result.getHistograms().containsKey(name) ? IntervalWriter.decode(result.getHistograms().get(name)) : null;
+            stats.add(name, histogram, result.getErrors().get(name));
+            if (LoadTestService.FLOW.equals(name) && Objects.nonNull(histogram)) {
+                flows = histogram.getTotalCount();
+            }
+        }
+        var seconds = Math.max(result.getElapsedNanos(), 1) / (double) TimeUnit.SECONDS.toNanos(1);
+        log.info("Worker {}: {} flows in {} s, {} flows/s, created {} offers{}", result.getName(), flows,
+                String.format("%.3f", seconds), String.format("%.2f", flows / seconds), result.getCreatedOfferIds().size(),
+                Objects.isNull(result.getFailure()) ? "" : ", failed: " + result.getFailure());
+    }
+
+    private static void close(List<WorkerConnection> connections) {
+        for (var connection : connections) {
+            try {
+                connection.socket.close();
+            } catch (IOException e) {
+                log.debug("Cannot close worker connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class WorkerConnection {
+        private final Socket socket;
+        private final BufferedReader reader;
+    }
+}
@@ -0,0 +1,126 @@
+package com.dih.connector.test.load;
+
+import com.dih.connector.test.service.ProducerOfferService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.management.ManagementFactory;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker side of a distributed run: connects to the {@link DistributedCoordinator}, waits for its {@link WorkerTask},
+ * creates and consumes offers as told and sends back a {@link WorkerResult}. The worker opens with {@link #HELLO},
+ * all other messages are single JSON lines.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DistributedWorker {
+    /**
+     * First line a worker sends, the coordinator ignores connections that do not start with it.
+     */
+    static final String HELLO = "connector-test-worker/1";
+
+    @Value("${distributed.coordinator:localhost:7070}")
+    private String coordinator;
+
+    @Value("${distributed.joinTimeout:2m}")
+    private Duration joinTimeout;
+
+    private final ProducerOfferService producerOfferService;
+    private final LoadTestService loadTestService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public void run() throws IOException, InterruptedException {
+        try (var socket = connect()) {
+            var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            var writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            writer.write(HELLO);
+            writer.newLine();
+            writer.flush();
+            var line = reader.readLine();
+            if (Objects.isNull(line)) {
+                throw new RuntimeException("Coordinator " + coordinator + " closed the connection without a task");
+            }
+            var task = objectMapper.readValue(line, WorkerTask.class);
+            log.info("Running as worker {} of {}: create {} offers, consume {} with {} iterations", task.getWorker() + 1,
+                    task.getWorkers(), task.getCreateOffers(), task.getOfferIds(), task.getIterations());
+            writer.write(objectMapper.writeValueAsString(execute(task)));
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    private WorkerResult execute(WorkerTask task) throws InterruptedException {
+        var stats = new LatencyStats();
+        var created = new ArrayList<UUID>();
+        var start = System.nanoTime();
+        String failure = null;
+        try {
+            for (int i = 0; i < task.getCreateOffers(); i++) {
+                var createStart = System.nanoTime();
+                try {
+                    created.add(producerOfferService.createOffer());
+                    stats.record(SoakOperation.CREATE.getFlow(), System.nanoTime() - createStart);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Create flow failed: {}", e.getMessage());
+                    stats.recordError(SoakOperation.CREATE.getFlow());
+                }
+            }
+            var offerIds = task.getOfferIds().isEmpty() ? created : task.getOfferIds();
+            var duration = Objects.isNull(task.getDurationMillis()) ? null : Duration.ofMillis(task.getDurationMillis());
+            if (!offerIds.isEmpty() && (task.getIterations() > 0 || Objects.nonNull(duration))) {
+                var loadStats = loadTestService.run(offerIds, task.getIterations(), task.getConcurrency(), duration);
+                loadStats.getNames().forEach(name -> stats.add(name, loadStats.getHistogram(name), loadStats.getErrors(name)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Worker task failed", e);
+            failure = e.toString();
+        }
+        var histograms = new HashMap<String, String>();
+        var errors = new HashMap<String, Long>();
+        stats.getNames().forEach(name -> {
+            Optional.ofNullable(stats.getHistogram(name)).ifPresent(histogram -> histograms.put(name, IntervalWriter.encode(histogram)));
+            errors.put(name, stats.getErrors(name));
+        });
+        return new WorkerResult(ManagementFactory.getRuntimeMXBean().getName(), System.nanoTime() - start,
+                histograms, errors, created, failure);
+    }
+
+    /**
+     * Workers may be started before the coordinator, so refused connections are retried until the join timeout.
+     */
+    private Socket connect() throws IOException, InterruptedException {
+        var separator = coordinator.lastIndexOf(':');
+        var host = coordinator.substring(0, separator);
+        var port = Integer.parseInt(coordinator.substring(separator + 1));
+        var deadline = System.nanoTime() + joinTimeout.toNanos();
+        while (true) {
+            try {
+                return new Socket(host, port);
+            } catch (ConnectException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                TimeUnit.MILLISECONDS.sleep(500);
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.dih.connector.test.load;
+
+public enum IntervalFormat {
+    CSV,
+    JSON
+}
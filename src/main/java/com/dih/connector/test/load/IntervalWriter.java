@@ -0,0 +1,96 @@
+package com.dih.connector.test.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+
+/**
+ * Appends one row per operation and interval to a CSV file or a JSON lines file. JSON rows also carry the compressed
+ * interval histogram in base64, so intervals can be merged again later.
+ */
+class IntervalWriter implements Closeable {
+    private static final String CSV_HEADER = "timestamp,elapsed_s,operation,latency,count,errors,ops_per_s,mean_ms,p50_ms,p90_ms,p99_ms,p999_ms,max_ms";
+
+    private final IntervalFormat format;
+    private final BufferedWriter writer;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    IntervalWriter(Path file, IntervalFormat format) throws IOException {
+        this.format = format;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        if (format == IntervalFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+        }
+    }
+
+    synchronized void write(Instant timestamp, double elapsedSeconds, String operation, String latency, Histogram histogram,
+                            long errors, double intervalSeconds) throws IOException {
+        var rate = histogram.getTotalCount() / intervalSeconds;
+        if (format == IntervalFormat.CSV) {
+            writer.write(String.format("%s,%.3f,%s,%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f", timestamp, elapsedSeconds, operation, latency,
+                    histogram.getTotalCount(), errors, rate, toMillis(histogram.getMean()),
+                    toMillis(histogram.getValueAtPercentile(50)), toMillis(histogram.getValueAtPercentile(90)),
+                    toMillis(histogram.getValueAtPercentile(99)), toMillis(histogram.getValueAtPercentile(99.9)),
+                    toMillis(histogram.getMaxValue())));
+        } else {
+            var row = new LinkedHashMap<String, Object>();
+            row.put("timestamp", timestamp.toString());
+            row.put("elapsedSeconds", elapsedSeconds);
+            row.put("operation", operation);
+            row.put("latency", latency);
+            row.put("count", histogram.getTotalCount());
+            row.put("errors", errors);
+            row.put("opsPerSecond", rate);
+            row.put("meanMs", toMillis(histogram.getMean()));
+            row.put("p50Ms", toMillis(histogram.getValueAtPercentile(50)));
+            row.put("p90Ms", toMillis(histogram.getValueAtPercentile(90)));
+            row.put("p99Ms", toMillis(histogram.getValueAtPercentile(99)));
+            row.put("p999Ms", toMillis(histogram.getValueAtPercentile(99.9)));
+            row.put("maxMs", toMillis(histogram.getMaxValue()));
+            row.put("histogram", encode(histogram));
+            writer.write(objectMapper.writeValueAsString(row));
+        }
+        writer.newLine();
+    }
+
+    synchronized void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    static String encode(Histogram histogram) {
+        var buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        var length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    static Histogram decode(String encoded) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(encoded)), 0);
+        } catch (DataFormatException e) {
+            throw new RuntimeException("Cannot decode histogram", e);
+        }
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
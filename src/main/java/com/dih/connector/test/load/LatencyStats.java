@@ -0,0 +1,83 @@
+package com.dih.connector.test.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Thread safe latency collector keyed by operation name. Values are recorded in nanoseconds and reported in
+ * milliseconds.
+ */
+@Slf4j
+public class LatencyStats {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    public void record(String name, long nanos) {
+        histograms.computeIfAbsent(name, n -> new ConcurrentHistogram(SIGNIFICANT_DIGITS)).recordValue(nanos);
+    }
+
+    public void recordError(String name) {
+        errors.computeIfAbsent(name, n -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Adds latencies and errors recorded elsewhere, e.g. by another process.
+     */
+    public void add(String name, Histogram histogram, long errorCount) {
+        var target = histograms.computeIfAbsent(name, n -> new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+        if (histogram != null) {
+            target.add(histogram);
+        }
+        if (errorCount > 0) {
+            errors.computeIfAbsent(name, n -> new AtomicLong()).addAndGet(errorCount);
+        }
+    }
+
+    public Set<String> getNames() {
+        return Stream.concat(histograms.keySet().stream(), errors.keySet().stream()).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    public Histogram getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    public long getErrors(String name) {
+        var counter = errors.get(name);
+        return counter == null ? 0 : counter.get();
+    }
+
+    public void report(String title, long elapsedNanos) {
+        var seconds = Math.max(elapsedNanos, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+        log.info("{}: elapsed {} s", title, String.format("%.3f", seconds));
+        log.info(String.format("%-24s %10s %8s %12s %10s %10s %10s %10s",
+                "operation", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        getNames().forEach(name -> {
+            var histogram = histograms.computeIfAbsent(name, n -> new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            log.info(String.format("%-24s %10d %8d %12.2f %10.2f %10.2f %10.2f %10.2f",
+                    name,
+                    histogram.getTotalCount(),
+                    getErrors(name),
+                    histogram.getTotalCount() / seconds,
+                    toMillis(histogram.getValueAtPercentile(50)),
+                    toMillis(histogram.getValueAtPercentile(90)),
+                    toMillis(histogram.getValueAtPercentile(99)),
+                    toMillis(histogram.getMaxValue())));
+        });
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,161 @@
+package com.dih.connector.test.load;
+
+import com.dih.connector.test.service.ConsumeStep;
+import com.dih.connector.test.service.ConsumerOfferService;
+import com.dih.connector.test.service.ExecutorFactory;
+import com.dih.connector.test.service.ReactiveConsumerOfferService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs concurrent {@link ConsumerOfferService#consumeOffer} flows against one or more offers and reports throughput
+ * and latency percentiles for the whole flow and for every {@link ConsumeStep}. With {@code consumer.client=reactive}
+ * the flows run on {@link ReactiveConsumerOfferService} instead of worker threads.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoadTestService {
+    static final String FLOW = "consumeOffer";
+
+    @Value("${load.concurrency:10}")
+    private int concurrency;
+
+    @Value("${load.iterations:#{null}}")
+    private Long iterations;
+
+    @Value("${load.duration:#{null}}")
+    private Duration duration;
+
+    @Value("${load.rampUp:0s}")
+    private Duration rampUp;
+
+    @Value("${load.virtualThreads:true}")
+    private boolean virtualThreads;
+
+    private final ConsumerOfferService consumerOfferService;
+
+    private final ObjectProvider<ReactiveConsumerOfferService> reactiveConsumerOfferService;
+
+    public LatencyStats run(UUID offerId) throws InterruptedException {
+        return run(List.of(offerId), iterations(iterations, duration), concurrency, duration);
+    }
+
+    /**
+     * The configured iterations, unbounded when only a duration is given. A run without either would never end.
+     */
+    static long iterations(Long iterations, Duration duration) {
+        if (Objects.isNull(duration) && (Objects.isNull(iterations) || iterations <= 0)) {
+            throw new RuntimeException("load.iterations or load.duration is required");
+        }
+        return Objects.isNull(iterations) ? 0 : iterations;
+    }
+
+    /**
+     * Runs the flows round robin over the given offers, independent of the {@code load.*} properties.
+     */
+    public LatencyStats run(List<UUID> offerIds, long iterations, int concurrency, Duration duration) throws InterruptedException {
+        log.info("Starting load test for offers {}: concurrency={}, iterations={}, duration={}, rampUp={}",
+                offerIds, concurrency, iterations, duration, rampUp);
+        var stats = new LatencyStats();
+        var total = iterations > 0 ? iterations : Long.MAX_VALUE;
+        var remaining = new AtomicLong(total);
+        var start = System.nanoTime();
+        var deadline = Objects.isNull(duration) ? Long.MAX_VALUE : start + duration.toNanos();
+        var reactiveService = reactiveConsumerOfferService.getIfAvailable();
+        if (reactiveService != null) {
+            runReactive(reactiveService, offerIds, concurrency, stats, total, deadline);
+            stats.report("Load test", System.nanoTime() - start);
+            return stats;
+        }
+        var executor = ExecutorFactory.newExecutor("load", concurrency, virtualThreads);
+        try {
+            var workers = new ArrayList<Future<?>>();
+            for (int i = 0; i < concurrency; i++) {
+                var delayNanos = rampUp.toNanos() * i / concurrency;
+                workers.add(executor.submit(() -> runWorker(offerIds, stats, total, remaining, start + delayNanos, deadline)));
+            }
+            for (var worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Load test worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        stats.report("Load test", System.nanoTime() - start);
+        return stats;
+    }
+
+    /**
+     * Keeps {@code load.concurrency} flows in flight on the WebClient event loops instead of one thread per flow. A new
+     * flow starts whenever one completes, until the iterations are used up or the deadline has passed.
+     */
+    private void runReactive(ReactiveConsumerOfferService service, List<UUID> offerIds, int concurrency, LatencyStats stats, long total, long deadline) {
+        Flux.<Long, Long>generate(() -> 0L, (i, sink) -> {
+                    if (i >= total || System.nanoTime() >= deadline) {
+                        sink.complete();
+                    } else {
+                        sink.next(i);
+                    }
+                    return i + 1;
+                })
+                .flatMap(i -> {
+                    var flow = Mono.defer(() -> {
+                        var flowStart = System.nanoTime();
+                        return service.consumeOffer(offerOf(offerIds, i), (step, nanos) -> stats.record(step.name(), nanos))
+                                .doOnNext(result -> stats.record(FLOW, System.nanoTime() - flowStart));
+                    }).onErrorResume(e -> {
+                        log.warn("Consume flow failed: {}", e.getMessage());
+                        stats.recordError(FLOW);
+                        return Mono.empty();
+                    });
+                    return i < concurrency && !rampUp.isZero()
+                            ? Mono.delay(rampUp.multipliedBy(i).dividedBy(concurrency)).then(flow)
+                            : flow;
+                }, concurrency)
+                .blockLast();
+    }
+
+    private void runWorker(List<UUID> offerIds, LatencyStats stats, long total, AtomicLong remaining, long startAt, long deadline) {
+        try {
+            var delay = startAt - System.nanoTime();
+            if (delay > 0) {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+            long left;
+            while (System.nanoTime() < deadline && (left = remaining.getAndDecrement()) > 0) {
+                var offerId = offerOf(offerIds, total - left);
+                var flowStart = System.nanoTime();
+                try {
+                    consumerOfferService.consumeOffer(offerId, (step, nanos) -> stats.record(step.name(), nanos));
+                    stats.record(FLOW, System.nanoTime() - flowStart);
+                } catch (RuntimeException e) {
+                    log.warn("Consume flow failed: {}", e.getMessage());
+                    stats.recordError(FLOW);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static UUID offerOf(List<UUID> offerIds, long iteration) {
+        return offerIds.get((int) (iteration % offerIds.size()));
+    }
+}
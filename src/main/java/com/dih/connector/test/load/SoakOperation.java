@@ -0,0 +1,16 @@
+package com.dih.connector.test.load;
+
+public enum SoakOperation {
+    CONSUME("consumeOffer"),
+    CREATE("createOffer");
+
+    private final String flow;
+
+    SoakOperation(String flow) {
+        this.flow = flow;
+    }
+
+    public String getFlow() {
+        return flow;
+    }
+}
@@ -0,0 +1,200 @@
+package com.dih.connector.test.load;
+
+import com.dih.connector.test.service.ConsumerOfferService;
+import com.dih.connector.test.service.ExecutorFactory;
+import com.dih.connector.test.service.ProducerOfferService;
+import com.dih.connector.test.service.ReactiveConsumerOfferService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop soak test: every configured operation is started at a fixed arrival rate, independent of how long the
+ * previous calls take. Latency is measured from the intended start time, so calls that wait for a free slot or
+ * queue behind a slow response are not hidden (coordinated omission). The uncorrected service time is recorded as
+ * well. Failed calls are recorded with the time until they failed and counted as errors. Histograms are rolled every
+ * {@code soak.interval} and appended to {@code soak.file}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SoakTestService {
+    static final String RESPONSE = "response";
+    static final String SERVICE = "service";
+
+    @Value("${soak.operations:consume}")
+    private List<SoakOperation> operations;
+
+    @Value("${soak.rate:1}")
+    private double rate;
+
+    @Value("${soak.duration:1h}")
+    private Duration duration;
+
+    @Value("${soak.interval:1m}")
+    private Duration interval;
+
+    @Value("${soak.maxInFlight:1000}")
+    private int maxInFlight;
+
+    @Value("${soak.file:soak-intervals.csv}")
+    private Path file;
+
+    @Value("${soak.format:csv}")
+    private IntervalFormat format;
+
+    @Value("${load.virtualThreads:true}")
+    private boolean virtualThreads;
+
+    private final ConsumerOfferService consumerOfferService;
+    private final ObjectProvider<ReactiveConsumerOfferService> reactiveConsumerOfferService;
+    private final ProducerOfferService producerOfferService;
+
+    public LatencyStats run(UUID offerId) throws IOException, InterruptedException {
+        if (!(rate > 0)) {
+            throw new RuntimeException("soak.rate must be positive, got " + rate);
+        }
+        log.info("Starting soak test for offer {}: operations={}, rate={}/s, duration={}, interval={}, output={}",
+                offerId, operations, rate, duration, interval, file);
+        var stats = new LatencyStats();
+        var recorders = new LinkedHashMap<String, Recorder>();
+        var errors = new LinkedHashMap<String, LongAdder>();
+        for (var operation : operations) {
+            recorders.put(operation.getFlow() + "|" + RESPONSE, new Recorder(3));
+            recorders.put(operation.getFlow() + "|" + SERVICE, new Recorder(3));
+            errors.put(operation.getFlow(), new LongAdder());
+        }
+        var permits = new Semaphore(maxInFlight);
+        var executor = ExecutorFactory.newExecutor("soak", maxInFlight, virtualThreads);
+        var roller = Executors.newSingleThreadScheduledExecutor(ExecutorFactory.namedThreadFactory("soak-interval"));
+        var start = System.nanoTime();
+        var deadline = start + duration.toNanos();
+        try (var writer = new IntervalWriter(file, format)) {
+            var intervalStart = new long[]{start};
+            roller.scheduleAtFixedRate(() -> {
+                var now = System.nanoTime();
+                roll(writer, recorders, errors, now - start, now - intervalStart[0]);
+                intervalStart[0] = now;
+            }, interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+
+            var dispatchers = new ArrayList<Thread>();
+            for (var operation : operations) {
+                var dispatcher = new Thread(() -> dispatch(operation, offerId, start, deadline, permits, executor,
+                        recorders, errors.get(operation.getFlow()), stats), "soak-" + operation.getFlow());
+                dispatcher.setDaemon(true);
+                dispatcher.start();
+                dispatchers.add(dispatcher);
+            }
+            for (var dispatcher : dispatchers) {
+                dispatcher.join();
+            }
+            // wait for the calls still in flight before the last interval is written
+            permits.acquire(maxInFlight);
+            roller.shutdownNow();
+            roller.awaitTermination(interval.toMillis(), TimeUnit.MILLISECONDS);
+            var now = System.nanoTime();
+            roll(writer, recorders, errors, now - start, now - intervalStart[0]);
+        } finally {
+            roller.shutdownNow();
+            executor.shutdownNow();
+        }
+        stats.report("Soak test", System.nanoTime() - start);
+        return stats;
+    }
+
+    private void dispatch(SoakOperation operation, UUID offerId, long start, long deadline, Semaphore permits,
+                          ExecutorService executor, Map<String, Recorder> recorders, LongAdder errors,
+                          LatencyStats stats) {
+        var period = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        var response = recorders.get(operation.getFlow() + "|" + RESPONSE);
+        var service = recorders.get(operation.getFlow() + "|" + SERVICE);
+        for (long i = 0; ; i++) {
+            var intended = start + i * period;
+            if (intended >= deadline) {
+                return;
+            }
+            for (var wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            executor.execute(() -> {
+                var actual = System.nanoTime();
+                try {
+                    execute(operation, offerId);
+                } catch (Exception e) {
+                    log.warn("{} failed: {}", operation.getFlow(), e.getMessage());
+                    errors.increment();
+                    stats.recordError(operation.getFlow());
+                } finally {
+                    // failed calls are recorded too, timeouts belong in the tail
+                    var end = System.nanoTime();
+                    response.recordValue(end - intended);
+                    service.recordValue(end - actual);
+                    stats.record(operation.getFlow(), end - intended);
+                    permits.release();
+                }
+            });
+        }
+    }
+
+    private void execute(SoakOperation operation, UUID offerId) throws IOException {
+        if (operation == SoakOperation.CREATE) {
+            producerOfferService.createOffer();
+            return;
+        }
+        var reactiveService = reactiveConsumerOfferService.getIfAvailable();
+        if (reactiveService != null) {
+            reactiveService.consumeOffer(offerId).block();
+        } else {
+            consumerOfferService.consumeOffer(offerId);
+        }
+    }
+
+    private void roll(IntervalWriter writer, Map<String, Recorder> recorders, Map<String, LongAdder> errors, long elapsedNanos, long intervalNanos) {
+        var timestamp = Instant.now();
+        var elapsedSeconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        var intervalSeconds = Math.max(intervalNanos, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+        var intervalErrors = new LinkedHashMap<String, Long>();
+        errors.forEach((flow, adder) -> intervalErrors.put(flow, adder.sumThenReset()));
+        try {
+            for (var entry : recorders.entrySet()) {
+                var key = entry.getKey().split("\\|");
+                Histogram histogram = entry.getValue().getIntervalHistogram();
+                writer.write(timestamp, elapsedSeconds, key[0], key[1], histogram,
+                        RESPONSE.equals(key[1]) ? intervalErrors.get(key[0]) : 0, intervalSeconds);
+                if (RESPONSE.equals(key[1])) {
+                    log.info("{} interval: {} calls, {} errors, p99 {} ms", key[0], histogram.getTotalCount(), intervalErrors.get(key[0]),
+                            String.format("%.2f", histogram.getValueAtPercentile(99) / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            log.warn("Cannot write soak interval to {}: {}", file, e.getMessage());
+        }
+    }
+}
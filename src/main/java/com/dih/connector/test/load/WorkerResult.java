@@ -0,0 +1,24 @@
+package com.dih.connector.test.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Outcome of a worker, histograms are compressed and base64 encoded like the JSON soak intervals.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WorkerResult {
+    private String name;
+    private long elapsedNanos;
+    private Map<String, String> histograms;
+    private Map<String, Long> errors;
+    private List<UUID> createdOfferIds;
+    private String failure;
+}
@@ -0,0 +1,27 @@
+package com.dih.connector.test.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Share of a distributed run sent by the coordinator to one worker.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WorkerTask {
+    private int worker;
+    private int workers;
+    /**
+     * Offers to create before consuming, created offers are consumed too when no offers are given.
+     */
+    private int createOffers;
+    private List<UUID> offerIds;
+    private long iterations;
+    private int concurrency;
+    private Long durationMillis;
+}
@@ -0,0 +1,15 @@
+package com.dih.connector.test.load;
+
+import lombok.Data;
+
+@Data
+public class WorkloadOperation {
+    private String name;
+    private WorkloadOperationType type = WorkloadOperationType.CONSUME;
+    private int weight = 1;
+    private WorkloadPayload payload;
+
+    public String getName() {
+        return name == null ? type.getFlow() : name;
+    }
+}
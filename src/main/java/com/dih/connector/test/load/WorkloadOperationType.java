@@ -0,0 +1,31 @@
+package com.dih.connector.test.load;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public enum WorkloadOperationType {
+    /**
+     * Creates an offer for the payload, later consume operations may pick it.
+     */
+    @JsonProperty("create")
+    CREATE("createOffer"),
+    /**
+     * Consumes an offer created earlier in the run or the offer the run started with.
+     */
+    @JsonProperty("consume")
+    CONSUME("consumeOffer"),
+    /**
+     * Creates an offer for the payload and consumes it right away.
+     */
+    @JsonProperty("create-consume")
+    CREATE_CONSUME("createConsumeOffer");
+
+    private final String flow;
+
+    WorkloadOperationType(String flow) {
+        this.flow = flow;
+    }
+
+    public String getFlow() {
+        return flow;
+    }
+}
@@ -0,0 +1,29 @@
+package com.dih.connector.test.load;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+
+/**
+ * Artifact data of created offers: generated text of the given size, fixed text, a URL the producer fetches the
+ * data from or a seeded payload of the given size streamed by the embedded payload server.
+ */
+@Data
+public class WorkloadPayload {
+    private Type type = Type.TEXT;
+    private DataSize size = DataSize.ofKilobytes(1);
+    private String text;
+    private URI url;
+    private long seed = 42;
+
+    public enum Type {
+        @JsonProperty("text")
+        TEXT,
+        @JsonProperty("url")
+        URL,
+        @JsonProperty("synthetic")
+        SYNTHETIC
+    }
+}
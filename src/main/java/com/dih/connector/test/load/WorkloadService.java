@@ -0,0 +1,239 @@
+package com.dih.connector.test.load;
+
+import com.dih.connector.test.service.ConsumerOfferService;
+import com.dih.connector.test.service.ExecutorFactory;
+import com.dih.connector.test.service.ProducerOfferService;
+import com.dih.connector.test.service.ReactiveConsumerOfferService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a {@link WorkloadSpec} from {@code workload.file} on top of {@link ProducerOfferService} and
+ * {@link ConsumerOfferService} and reports latency percentiles per operation.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkloadService {
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ 0123456789\n";
+
+    @Value("${workload.file:#{null}}")
+    private Path file;
+
+    @Value("${load.virtualThreads:true}")
+    private boolean virtualThreads;
+
+    private final ProducerOfferService producerOfferService;
+    private final ConsumerOfferService consumerOfferService;
+    private final ObjectProvider<ReactiveConsumerOfferService> reactiveConsumerOfferService;
+
+    public LatencyStats run(UUID offerId) throws IOException, InterruptedException {
+        if (Objects.isNull(file)) {
+            throw new RuntimeException("workload.file is required in workload mode");
+        }
+        var spec = load(file);
+        validate(spec);
+        log.info("Starting workload {} from {}: concurrency={}, duration={}, iterations={}, operations={}", spec.getName(), file,
+                spec.getConcurrency(), spec.getDuration(), spec.getIterations(), spec.getOperations().size());
+        var texts = new HashMap<WorkloadOperation, String>();
+        var random = new Random(spec.getSeed());
+        for (var operation : spec.getOperations()) {
+            var payload = operation.getPayload();
+            if (operation.getType() != WorkloadOperationType.CONSUME && payload != null && payload.getType() == WorkloadPayload.Type.TEXT) {
+                texts.put(operation, payload.getText() != null ? payload.getText() : generateText(random, payload.getSize()));
+            }
+        }
+        var offers = new CopyOnWriteArrayList<UUID>();
+        if (Objects.nonNull(offerId)) {
+            offers.add(offerId);
+        }
+        var stats = new LatencyStats();
+        var remaining = new AtomicLong(spec.getIterations() > 0 ? spec.getIterations() : Long.MAX_VALUE);
+        var start = System.nanoTime();
+        var deadline = Objects.isNull(spec.getDuration()) ? Long.MAX_VALUE : start + spec.getDuration().toNanos();
+        var executor = ExecutorFactory.newExecutor("workload", spec.getConcurrency(), virtualThreads);
+        try {
+            var workers = new ArrayList<Future<?>>();
+            for (int i = 0; i < spec.getConcurrency(); i++) {
+                var worker = i;
+                var startAt = start + spec.getRampUp().toNanos() * i / spec.getConcurrency();
+                workers.add(executor.submit(() -> {
+                    runWorker(spec, new Random(spec.getSeed() + worker), texts, offers, stats, remaining, startAt, deadline);
+                    return null;
+                }));
+            }
+            for (var worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Workload worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        stats.report("Workload " + spec.getName(), System.nanoTime() - start);
+        return stats;
+    }
+
+    private void runWorker(WorkloadSpec spec, Random random, Map<WorkloadOperation, String> texts, List<UUID> offers,
+                           LatencyStats stats, AtomicLong remaining, long startAt, long deadline) throws InterruptedException {
+        var delay = startAt - System.nanoTime();
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+        var totalWeight = spec.getOperations().stream().mapToInt(WorkloadOperation::getWeight).sum();
+        while (System.nanoTime() < deadline && remaining.getAndDecrement() > 0) {
+            var operation = pick(spec.getOperations(), random.nextInt(totalWeight));
+            var operationStart = System.nanoTime();
+            try {
+                execute(operation, random, texts.get(operation), offers);
+                stats.record(operation.getName(), System.nanoTime() - operationStart);
+            } catch (Exception e) {
+                log.warn("{} failed: {}", operation.getName(), e.getMessage());
+                stats.recordError(operation.getName());
+            }
+            var think = spec.getThinkTime().toNanos();
+            if (!spec.getThinkTimeJitter().isZero()) {
+                think += (long) (random.nextDouble() * spec.getThinkTimeJitter().toNanos());
+            }
+            if (think > 0) {
+                TimeUnit.NANOSECONDS.sleep(think);
+            }
+        }
+    }
+
+    private void execute(WorkloadOperation operation, Random random, String text, List<UUID> offers) throws IOException {
+        switch (operation.getType()) {
+            case CREATE:
+                offers.add(createOffer(operation, text));
+                break;
+            case CREATE_CONSUME:
+                consumeOffer(createOffer(operation, text));
+                break;
+            case CONSUME:
+            default:
+                if (offers.isEmpty()) {
+                    throw new RuntimeException("No offer to consume yet");
+                }
+                consumeOffer(offers.get(random.nextInt(offers.size())));
+        }
+    }
+
+    private UUID createOffer(WorkloadOperation operation, String text) throws IOException {
+        var payload = operation.getPayload();
+        if (payload == null) {
+            return producerOfferService.createOffer();
+        }
+        switch (payload.getType()) {
+            case URL:
+                return producerOfferService.createOffer(null, payload.getUrl());
+            case SYNTHETIC:
+                return producerOfferService.createOffer(null, producerOfferService.syntheticDataUri(payload.getSize(), payload.getSeed()));
+            case TEXT:
+            default:
+                return producerOfferService.createOffer(text, null);
+        }
+    }
+
+    private void consumeOffer(UUID offerId) {
+        var reactiveService = reactiveConsumerOfferService.getIfAvailable();
+        if (reactiveService != null) {
+            reactiveService.consumeOffer(offerId).block();
+        } else {
+            consumerOfferService.consumeOffer(offerId);
+        }
+    }
+
+    private static WorkloadOperation pick(List<WorkloadOperation> operations, int value) {
+        for (var operation : operations) {
+            value -= operation.getWeight();
+            if (value < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private static String generateText(Random random, DataSize size) {
+        var text = new StringBuilder((int) size.toBytes());
+        for (long i = 0; i < size.toBytes(); i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    private void validate(WorkloadSpec spec) {
+        if (spec.getOperations().isEmpty()) {
+            throw new RuntimeException("Workload " + spec.getName() + " has no operations");
+        }
+        if (spec.getConcurrency() < 1) {
+            throw new RuntimeException("Workload concurrency must be at least 1");
+        }
+        if (Objects.isNull(spec.getDuration()) && spec.getIterations() <= 0) {
+            throw new RuntimeException("Workload " + spec.getName() + " needs a duration or a number of iterations");
+        }
+        for (var operation : spec.getOperations()) {
+            if (operation.getWeight() <= 0) {
+                throw new RuntimeException("Weight of operation " + operation.getName() + " must be positive");
+            }
+            var payload = operation.getPayload();
+            if (payload != null && payload.getType() == WorkloadPayload.Type.URL && payload.getUrl() == null) {
+                throw new RuntimeException("Payload of operation " + operation.getName() + " needs a url");
+            }
+            if (payload != null && payload.getType() == WorkloadPayload.Type.SYNTHETIC) {
+                // fails before the run starts when the payload server is not enabled
+                producerOfferService.syntheticDataUri(payload.getSize(), payload.getSeed());
+            }
+        }
+    }
+
+    /**
+     * Reads a workload from YAML, or from JSON when the file name ends with {@code .json}.
+     */
+    static WorkloadSpec load(Path file) throws IOException {
+        var objectMapper = file.toString().endsWith(".json") ? new ObjectMapper() : new ObjectMapper(new YAMLFactory());
+        var module = new SimpleModule();
+        module.addDeserializer(Duration.class, new JsonDeserializer<>() {
+            @Override
+            public Duration deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return DurationStyle.detectAndParse(parser.getValueAsString());
+            }
+        });
+        module.addDeserializer(DataSize.class, new JsonDeserializer<>() {
+            @Override
+            public DataSize deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return DataSize.parse(parser.getValueAsString());
+            }
+        });
+        objectMapper.registerModule(module);
+        objectMapper.enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return objectMapper.readValue(file.toFile(), WorkloadSpec.class);
+    }
+}
@@ -0,0 +1,25 @@
+package com.dih.connector.test.load;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Workload definition read from a YAML or JSON file. Workers pick the next operation at random according to the
+ * operation weights and pause for the think time between operations. Durations and sizes take the same formats as
+ * the application properties, e.g. {@code 30s} or {@code 64KB}.
+ */
+@Data
+public class WorkloadSpec {
+    private String name = "workload";
+    private int concurrency = 1;
+    private Duration duration;
+    private long iterations;
+    private Duration rampUp = Duration.ZERO;
+    private Duration thinkTime = Duration.ZERO;
+    private Duration thinkTimeJitter = Duration.ZERO;
+    private long seed = 1;
+    private List<WorkloadOperation> operations = new ArrayList<>();
+}
@@ -0,0 +1,125 @@
+package com.dih.connector.test.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory resources of the mock connector. Resources are stored per collection as the JSON the Dataspace
+ * Connector returns, links between resources are kept as lists of self hrefs.
+ */
+class MockConnectorRepository {
+    static final Set<String> COLLECTIONS = Set.of("offers", "catalogs", "rules", "contracts", "representations", "artifacts", "agreements");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Map<UUID, ObjectNode>> resources = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> links = new ConcurrentHashMap<>();
+
+    MockConnectorRepository(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    ObjectNode create(String apiBase, String collection, JsonNode description) {
+        var id = UUID.randomUUID();
+        var now = DATE_FORMAT.format(ZonedDateTime.now(ZoneOffset.UTC));
+        var node = description != null && description.isObject() ? ((ObjectNode) description).deepCopy() : objectMapper.createObjectNode();
+        node.put("creationDate", now).put("modificationDate", now);
+        // contracts take start and end as ISO strings but return them in the connector date format
+        for (var field : List.of("start", "end")) {
+            if (node.path(field).isTextual()) {
+                node.put(field, DATE_FORMAT.format(ZonedDateTime.parse(node.get(field).asText())));
+            }
+        }
+        node.putObject("_links").putObject("self").put("href", apiBase + "/" + collection + "/" + id);
+        collection(collection).put(id, node);
+        return node;
+    }
+
+    /**
+     * Converts a date in the connector format to the ISO format used in IDS descriptions.
+     */
+    static String isoDate(String date) {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(ZonedDateTime.parse(date, DATE_FORMAT));
+    }
+
+    Optional<ObjectNode> get(String collection, UUID id) {
+        return Optional.ofNullable(collection(collection).get(id));
+    }
+
+    Collection<ObjectNode> getAll(String collection) {
+        return collection(collection).values();
+    }
+
+    boolean update(String collection, UUID id, JsonNode description) {
+        var node = collection(collection).get(id);
+        if (node == null) {
+            return false;
+        }
+        if (description != null && description.isObject()) {
+            description.fields().forEachRemaining(field -> node.set(field.getKey(), field.getValue()));
+        }
+        node.put("modificationDate", DATE_FORMAT.format(ZonedDateTime.now(ZoneOffset.UTC)));
+        return true;
+    }
+
+    boolean delete(String collection, UUID id) {
+        links.keySet().removeIf(key -> key.startsWith(collection + "/" + id + "/"));
+        return collection(collection).remove(id) != null;
+    }
+
+    void link(String collection, UUID id, String sub, Collection<String> hrefs) {
+        var linked = links.computeIfAbsent(collection + "/" + id + "/" + sub, k -> new CopyOnWriteArrayList<>());
+        hrefs.stream().filter(href -> !linked.contains(href)).forEach(linked::add);
+    }
+
+    List<ObjectNode> getLinked(String collection, UUID id, String sub) {
+        return links.getOrDefault(collection + "/" + id + "/" + sub, List.of()).stream()
+                .map(MockConnectorRepository::idOf)
+                .filter(Objects::nonNull)
+                .map(linkedId -> get(sub, linkedId))
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds resources of a collection that link the given resource, e.g. the contracts of an offer.
+     */
+    List<ObjectNode> getLinking(String collection, String sub, UUID id) {
+        var result = new ArrayList<ObjectNode>();
+        links.forEach((key, hrefs) -> {
+            var parts = key.split("/");
+            if (parts[0].equals(collection) && parts[2].equals(sub) && hrefs.stream().anyMatch(href -> id.equals(idOf(href)))) {
+                get(collection, UUID.fromString(parts[1])).ifPresent(result::add);
+            }
+        });
+        return result;
+    }
+
+    static UUID idOf(String href) {
+        try {
+            return UUID.fromString(href.substring(href.lastIndexOf('/') + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Map<UUID, ObjectNode> collection(String collection) {
+        return resources.computeIfAbsent(collection, c -> new ConcurrentHashMap<>());
+    }
+}
@@ -0,0 +1,398 @@
+package com.dih.connector.test.mock;
+
+import com.dih.connector.test.payload.SyntheticPayload;
+import com.dih.connector.test.service.ExecutorFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for a producer and consumer Dataspace Connector pair. It serves the resource API used by the
+ * {@code DataspaceConnector*Api} clients and the IDS description, contract and data endpoints used by the
+ * consumer flow under any base path, e.g. {@code http://localhost:18080/producer} and
+ * {@code http://localhost:18080/consumer}. Latency, bandwidth, error rate and payload size are configurable.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@ConditionalOnExpression("${mock.connector.enabled:false} or '${runner.mode:single}'.equalsIgnoreCase('mock')")
+public class MockConnectorServer {
+    private static final String IDS = "https://w3id.org/idsa/core/";
+
+    @Value("${mock.connector.port:18080}")
+    private int port;
+
+    @Value("${mock.connector.threads:64}")
+    private int threads;
+
+    @Value("${mock.connector.latency:0ms}")
+    private Duration latency;
+
+    @Value("${mock.connector.latencyJitter:0ms}")
+    private Duration latencyJitter;
+
+    @Value("${mock.connector.bandwidth:0}")
+    private long bandwidth;
+
+    @Value("${mock.connector.errorRate:0}")
+    private double errorRate;
+
+    @Value("${mock.connector.payloadSize:1048576}")
+    private long payloadSize;
+
+    @Value("${mock.connector.descriptionKeywords:0}")
+    private int descriptionKeywords;
+
+    @Value("${mock.connector.seed:42}")
+    private long seed;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockConnectorRepository repository = new MockConnectorRepository(objectMapper);
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() throws IOException {
+        executor = ExecutorFactory.newExecutor("mock-connector", threads, false);
+        // unauthenticated, so only reachable from this host
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        log.info("Mock connector listening on http://localhost:{}", server.getAddress().getPort());
+    }
+
+    @PreDestroy
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        stopped.countDown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void await() throws InterruptedException {
+        stopped.await();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            var path = exchange.getRequestURI().getPath();
+            var apiIndex = path.indexOf("/api/");
+            var body = exchange.getRequestBody().readAllBytes();
+            simulateLatency();
+            if (apiIndex < 0) {
+                sendEmpty(exchange, 404);
+                return;
+            }
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                sendEmpty(exchange, 500);
+                return;
+            }
+            var host = Optional.ofNullable(exchange.getRequestHeaders().getFirst("Host")).orElse("localhost:" + getPort());
+            var apiBase = "http://" + host + path.substring(0, apiIndex) + "/api";
+            var segments = Arrays.asList(path.substring(apiIndex + 5).split("/"));
+            route(exchange, apiBase, segments, body.length == 0 ? null : objectMapper.readTree(body));
+        } catch (RuntimeException e) {
+            log.warn("Mock connector failed to handle {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            // once streaming started the status is out, closing the exchange cuts the body short
+            if (exchange.getResponseCode() < 0) {
+                sendEmpty(exchange, 500);
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange, String apiBase, List<String> segments, JsonNode body) throws IOException {
+        var method = exchange.getRequestMethod();
+        var query = parseQuery(exchange.getRequestURI().getRawQuery());
+        if ("ids".equals(segments.get(0))) {
+            routeIds(exchange, apiBase, segments, query);
+            return;
+        }
+        var collection = segments.get(0);
+        if (!MockConnectorRepository.COLLECTIONS.contains(collection)) {
+            sendEmpty(exchange, 404);
+            return;
+        }
+        if (segments.size() == 1) {
+            if ("POST".equals(method)) {
+                sendJson(exchange, 201, repository.create(apiBase, collection, body));
+            } else {
+                sendJson(exchange, 200, page(apiBase + "/" + collection, collection, List.copyOf(repository.getAll(collection)), query));
+            }
+            return;
+        }
+        UUID id;
+        try {
+            id = UUID.fromString(segments.get(1));
+        } catch (IllegalArgumentException e) {
+            sendEmpty(exchange, 404);
+            return;
+        }
+        if (segments.size() == 2) {
+            switch (method) {
+                case "GET":
+                    var resource = repository.get(collection, id);
+                    if (resource.isPresent()) {
+                        sendJson(exchange, 200, resource.get());
+                    } else {
+                        sendEmpty(exchange, 404);
+                    }
+                    break;
+                case "PUT":
+                    sendEmpty(exchange, repository.update(collection, id, body) ? 204 : 404);
+                    break;
+                case "DELETE":
+                    sendEmpty(exchange, repository.delete(collection, id) ? 204 : 404);
+                    break;
+                default:
+                    sendEmpty(exchange, 405);
+            }
+            return;
+        }
+        var sub = segments.get(2);
+        if ("artifacts".equals(collection) && "data".equals(sub)) {
+            sendData(exchange, id);
+        } else if ("POST".equals(method)) {
+            var hrefs = body == null ? new String[0] : objectMapper.convertValue(body, String[].class);
+            repository.link(collection, id, sub, Arrays.asList(hrefs));
+            sendEmpty(exchange, 204);
+        } else if (repository.get(collection, id).isEmpty()) {
+            sendEmpty(exchange, 404);
+        } else {
+            sendJson(exchange, 200, page(apiBase + "/" + String.join("/", segments), sub, repository.getLinked(collection, id, sub), query));
+        }
+    }
+
+    private void routeIds(HttpExchange exchange, String apiBase, List<String> segments, Map<String, String> query) throws IOException {
+        var operation = String.join("/", segments.subList(1, segments.size()));
+        switch (operation) {
+            case "description":
+                var offerId = MockConnectorRepository.idOf(query.getOrDefault("elementId", ""));
+                var offer = offerId == null ? Optional.<ObjectNode>empty() : repository.get("offers", offerId);
+                if (offer.isPresent()) {
+                    sendJson(exchange, 200, description(offerId, offer.get()));
+                } else {
+                    sendEmpty(exchange, 404);
+                }
+                break;
+            case "contract":
+                sendJson(exchange, 200, agreement(apiBase, query.getOrDefault("artifactIds", "")));
+                break;
+            case "connector/update":
+            case "connector/unavailable":
+            case "resource/update":
+            case "resource/unavailable":
+                sendEmpty(exchange, 200);
+                break;
+            default:
+                sendEmpty(exchange, 404);
+        }
+    }
+
+    private ObjectNode description(UUID offerId, ObjectNode offer) {
+        var root = objectMapper.createObjectNode();
+        root.putObject("@context").put("ids", IDS);
+        root.put("@type", "ids:Resource").put("@id", offer.path("_links").path("self").path("href").asText());
+        root.putArray("ids:title").addObject().put("@value", offer.path("title").asText());
+        root.putObject("ids:modified").put("@value", MockConnectorRepository.isoDate(offer.path("modificationDate").asText()));
+        var keywords = root.putArray("ids:keyword");
+        for (int i = 0; i < descriptionKeywords; i++) {
+            keywords.addObject().put("@value", "keyword-" + i);
+        }
+        var contractOffer = root.putObject("ids:contractOffer")
+                .put("@type", "ids:ContractOffer")
+                .put("@id", "https://w3id.org/idsa/autogen/contractOffer/" + offerId);
+        var permissions = contractOffer.putArray("ids:permission");
+        repository.getLinking("contracts", "offers", offerId).stream()
+                .flatMap(contract -> repository.getLinked("contracts", selfId(contract), "rules").stream())
+                .findFirst()
+                .ifPresentOrElse(rule -> permissions.addObject().put("@type", "ids:Permission").put("@id", selfHref(rule)),
+                        () -> permissions.addObject().put("@type", "ids:Permission").put("@id", "https://w3id.org/idsa/autogen/permission/" + offerId));
+        var representations = root.putArray("ids:representation");
+        for (var representation : repository.getLinked("offers", offerId, "representations")) {
+            var representationNode = representations.addObject()
+                    .put("@type", "ids:Representation")
+                    .put("@id", selfHref(representation));
+            var instances = representationNode.putArray("ids:instance");
+            repository.getLinked("representations", selfId(representation), "artifacts")
+                    .forEach(artifact -> instances.addObject().put("@type", "ids:Artifact").put("@id", selfHref(artifact)));
+        }
+        return root;
+    }
+
+    private ObjectNode agreement(String apiBase, String artifactIds) {
+        var agreement = repository.create(apiBase, "agreements", null);
+        var id = selfId(agreement);
+        agreement.put("remoteId", selfHref(agreement));
+        agreement.put("confirmed", true);
+        agreement.put("value", "{\"@type\":\"ids:ContractAgreement\",\"ids:contractEnd\":{\"@value\":\"2999-01-01T00:00:00.000Z\"}}");
+        repository.link("agreements", id, "artifacts", Arrays.asList(artifactIds.split(",")));
+        return agreement;
+    }
+
+    private ObjectNode page(String href, String collection, List<ObjectNode> items, Map<String, String> query) {
+        var size = Integer.parseInt(query.getOrDefault("size", "30"));
+        var number = Integer.parseInt(query.getOrDefault("page", "0"));
+        var from = Math.min(items.size(), number * size);
+        var to = Math.min(items.size(), from + size);
+        var root = objectMapper.createObjectNode();
+        root.putObject("_embedded").putArray(collection).addAll(items.subList(from, to));
+        var links = root.putObject("_links");
+        links.putObject("self").put("href", href + "?page=" + number + "&size=" + size);
+        if (to < items.size()) {
+            links.putObject("next").put("href", href + "?page=" + (number + 1) + "&size=" + size);
+        }
+        root.putObject("page")
+                .put("size", size)
+                .put("totalElements", items.size())
+                .put("totalPages", (items.size() + size - 1) / size)
+                .put("number", number);
+        return root;
+    }
+
+    private void sendData(HttpExchange exchange, UUID artifactId) throws IOException {
+        var artifact = repository.get("artifacts", artifactId);
+        if (artifact.isEmpty()) {
+            sendEmpty(exchange, 404);
+            return;
+        }
+        var value = artifact.get().path("value");
+        if (value.isTextual()) {
+            var bytes = value.asText().getBytes(StandardCharsets.UTF_16BE);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain;charset=UTF-16BE");
+            exchange.sendResponseHeaders(200, bytes.length);
+            throttledWrite(exchange.getResponseBody(), bytes, 0, bytes.length, System.nanoTime(), 0);
+            return;
+        }
+        // artifacts pointing to a synthetic payload are served with its size and seed, so the checksums match
+        // the ones computed for the producer
+        var payload = Optional.of(artifact.get().path("accessUrl"))
+                .filter(JsonNode::isTextual)
+                .flatMap(url -> SyntheticPayload.parse(URI.create(url.asText())))
+                .orElseGet(() -> new SyntheticPayload(payloadSize, seed));
+        var size = payload.getSize();
+        var from = 0L;
+        var to = size - 1;
+        var range = SyntheticPayload.parseRange(exchange.getRequestHeaders().getFirst("Range"));
+        var ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (ifRange != null && !ifRange.equals(payload.etag())) {
+            range = null;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        exchange.getResponseHeaders().set("ETag", payload.etag());
+        if (range != null && range[0] >= size) {
+            exchange.getResponseHeaders().set("Content-Range", "bytes */" + size);
+            sendEmpty(exchange, 416);
+            return;
+        }
+        if (range != null) {
+            from = range[0];
+            to = Math.min(range[1], size - 1);
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + from + "-" + to + "/" + size);
+            exchange.sendResponseHeaders(206, to - from + 1);
+        } else {
+            exchange.sendResponseHeaders(200, size);
+        }
+        var start = System.nanoTime();
+        var sent = new long[1];
+        payload.write(exchange.getResponseBody(), from, to, length -> {
+            sent[0] += length;
+            throttle(start, sent[0]);
+        });
+    }
+
+    private void throttledWrite(OutputStream out, byte[] buffer, int offset, int length, long start, long alreadySent) throws IOException {
+        out.write(buffer, offset, length);
+        throttle(start, alreadySent + length);
+    }
+
+    private void throttle(long start, long sent) {
+        if (bandwidth > 0) {
+            var expectedNanos = sent * TimeUnit.SECONDS.toNanos(1) / bandwidth;
+            sleepNanos(expectedNanos - (System.nanoTime() - start));
+        }
+    }
+
+    private void simulateLatency() {
+        var jitter = latencyJitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(latencyJitter.toNanos() + 1);
+        sleepNanos(latency.toNanos() + jitter);
+    }
+
+    private static void sleepNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int status, JsonNode node) throws IOException {
+        var bytes = objectMapper.writeValueAsBytes(node);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        var result = new HashMap<String, String>();
+        if (rawQuery == null) {
+            return result;
+        }
+        for (var pair : rawQuery.split("&")) {
+            var separator = pair.indexOf('=');
+            var key = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+            var value = separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            result.put(key, value);
+        }
+        return result;
+    }
+
+    private static String selfHref(JsonNode resource) {
+        return resource.path("_links").path("self").path("href").asText();
+    }
+
+    private static UUID selfId(JsonNode resource) {
+        return MockConnectorRepository.idOf(selfHref(resource));
+    }
+}
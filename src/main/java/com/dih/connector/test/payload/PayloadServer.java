@@ -0,0 +1,141 @@
+package com.dih.connector.test.payload;
+
+import com.dih.connector.test.service.ExecutorFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves {@link SyntheticPayload}s as {@code GET|HEAD /payload/<bytes>?seed=<seed>} so the producer connector can
+ * fetch artifact data of any size without a file behind it. Payloads are streamed chunk by chunk and support single
+ * byte ranges with {@code If-Range}, a range starting past the end is answered with 416. The ETag is derived from
+ * size and seed. The URLs handed out use {@code payload.server.host}, which has to be reachable from the producer
+ * connector.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@ConditionalOnExpression("${payload.server.enabled:false} or '${producer.data.size:}' != ''")
+public class PayloadServer {
+
+    @Value("${payload.server.port:18090}")
+    private int port;
+
+    @Value("${payload.server.host:localhost}")
+    private String host;
+
+    @Value("${payload.server.threads:16}")
+    private int threads;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() throws IOException {
+        executor = ExecutorFactory.newExecutor("payload-server", threads, false);
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/payload/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        log.info("Payload server listening on http://{}:{}/payload/", host, getPort());
+    }
+
+    @PreDestroy
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public URI url(DataSize size, long seed) {
+        return URI.create("http://" + host + ":" + getPort() + new SyntheticPayload(size.toBytes(), seed).path());
+    }
+
+    /**
+     * The payload behind a URL handed out by this server, URLs of other hosts are never synthetic even if their path
+     * looks like one.
+     */
+    public Optional<SyntheticPayload> payload(URI uri) {
+        if (!"http".equalsIgnoreCase(uri.getScheme()) || !host.equalsIgnoreCase(uri.getHost()) || uri.getPort() != getPort()) {
+            return Optional.empty();
+        }
+        return SyntheticPayload.parse(uri);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            var method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            var payload = SyntheticPayload.parse(exchange.getRequestURI());
+            if (payload.isEmpty()) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            send(exchange, payload.get(), "HEAD".equals(method));
+        } catch (RuntimeException e) {
+            log.warn("Payload server failed to handle {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            // once streaming started the status is out, closing the exchange cuts the body short
+            if (exchange.getResponseCode() < 0) {
+                exchange.sendResponseHeaders(500, -1);
+            }
+        }
+    }
+
+    private void send(HttpExchange exchange, SyntheticPayload payload, boolean head) throws IOException {
+        var size = payload.getSize();
+        var from = 0L;
+        var to = size - 1;
+        var headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "application/octet-stream");
+        headers.set("Accept-Ranges", "bytes");
+        headers.set("ETag", payload.etag());
+        var range = SyntheticPayload.parseRange(exchange.getRequestHeaders().getFirst("Range"));
+        var ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (ifRange != null && !ifRange.equals(payload.etag())) {
+            range = null;
+        }
+        if (range != null && range[0] >= size) {
+            headers.set("Content-Range", "bytes */" + size);
+            exchange.sendResponseHeaders(416, -1);
+            return;
+        }
+        var status = 200;
+        if (range != null) {
+            from = range[0];
+            to = Math.min(range[1], size - 1);
+            status = 206;
+            headers.set("Content-Range", "bytes " + from + "-" + to + "/" + size);
+        }
+        var length = to - from + 1;
+        if (head) {
+            headers.set("Content-Length", String.valueOf(length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        // a zero length means chunked encoding to the JDK server, -1 is an empty body
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        var start = System.nanoTime();
+        payload.write(exchange.getResponseBody(), from, to, written -> { });
+        log.debug("Streamed {} bytes of {} in {} ms", length, payload.path(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,127 @@
+package com.dih.connector.test.payload;
+
+import com.dih.connector.test.service.ChecksumAlgorithm;
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic pseudo-random payload of a given size and seed. Every 64 KiB chunk is generated from a hash of seed
+ * and index, so any range can be produced without generating the prefix and nothing is ever buffered beyond one
+ * chunk. Payloads are addressed as {@code /payload/<bytes>?seed=<seed>} by the {@link PayloadServer} and the mock
+ * connector.
+ */
+@Value
+public class SyntheticPayload {
+    public static final int CHUNK_SIZE = 64 * 1024;
+    // part of the ETag, bumped whenever the generated bytes change
+    private static final int GENERATOR = 2;
+    private static final Pattern PATH = Pattern.compile("/payload/(\\d+)");
+    private static final Pattern SEED = Pattern.compile("(?:^|&)seed=(-?\\d+)(?:&|$)");
+    private static final Pattern RANGE = Pattern.compile("bytes=\\s*(\\d+)\\s*-\\s*(\\d*)\\s*");
+
+    long size;
+    long seed;
+
+    /**
+     * Recognises payload URLs by their path, independent of host and port.
+     */
+    public static Optional<SyntheticPayload> parse(URI uri) {
+        var path = PATH.matcher(Optional.ofNullable(uri.getPath()).orElse(""));
+        if (!path.matches()) {
+            return Optional.empty();
+        }
+        var seed = SEED.matcher(Optional.ofNullable(uri.getRawQuery()).orElse(""));
+        return Optional.of(new SyntheticPayload(Long.parseLong(path.group(1)), seed.find() ? Long.parseLong(seed.group(1)) : 0));
+    }
+
+    public String path() {
+        return "/payload/" + size + "?seed=" + seed;
+    }
+
+    /**
+     * Strong ETag, the content only depends on generator, seed and size.
+     */
+    public String etag() {
+        return "\"" + GENERATOR + "-" + seed + "-" + size + "\"";
+    }
+
+    /**
+     * Parses a single {@code bytes=from-[to]} range. Other forms and invalid ranges, e.g. reversed or overflowing
+     * ones, are ignored as RFC 7233 asks, the whole payload is served instead.
+     */
+    public static long[] parseRange(String header) {
+        var matcher = RANGE.matcher(Optional.ofNullable(header).orElse(""));
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            var from = Long.parseLong(matcher.group(1));
+            var to = matcher.group(2).isEmpty() ? Long.MAX_VALUE : Long.parseLong(matcher.group(2));
+            return from <= to ? new long[]{from, to} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fills the buffer with the chunk of the given index, the buffer must hold {@link #CHUNK_SIZE} bytes.
+     */
+    public void chunk(long index, byte[] buffer) {
+        // hashing seed and index keeps the chunks of neighbouring seeds unrelated
+        var random = new SplittableRandom(mix(mix(seed) + index));
+        for (int i = 0; i < CHUNK_SIZE; i += Long.BYTES) {
+            var value = random.nextLong();
+            for (int j = 0; j < Long.BYTES; j++) {
+                buffer[i + j] = (byte) (value >>> (j * 8));
+            }
+        }
+    }
+
+    /**
+     * Writes the inclusive byte range {@code from} to {@code to}.
+     */
+    public void write(OutputStream out, long from, long to, ChunkListener listener) throws IOException {
+        var buffer = new byte[CHUNK_SIZE];
+        for (var position = from; position <= to; ) {
+            var index = position / CHUNK_SIZE;
+            chunk(index, buffer);
+            var offset = (int) (position - index * CHUNK_SIZE);
+            var length = (int) Math.min(CHUNK_SIZE - offset, to - position + 1);
+            out.write(buffer, offset, length);
+            listener.written(length);
+            position += length;
+        }
+    }
+
+    /**
+     * Checksum of the whole payload, computed from the generator without any I/O.
+     */
+    public String checksum(ChecksumAlgorithm algorithm) {
+        var hasher = algorithm.newHasher();
+        var buffer = new byte[CHUNK_SIZE];
+        for (long index = 0; index * CHUNK_SIZE < size; index++) {
+            chunk(index, buffer);
+            hasher.update(buffer, 0, (int) Math.min(CHUNK_SIZE, size - index * CHUNK_SIZE));
+        }
+        return hasher.hex();
+    }
+
+    /**
+     * 64-bit finalizer of SplitMix64.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    public interface ChunkListener {
+        void written(int length) throws IOException;
+    }
+}
@@ -0,0 +1,153 @@
+package com.dih.connector.test.service;
+
+import com.dih.connector.test.client.connector.model.AgreementResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of negotiated contract agreements keyed by consumer, producer, offer and the exact set of artifacts, so
+ * repeated consume flows can fetch the data without a new negotiation. Lookups happen once the offer description has
+ * resolved the artifacts, an agreement is never reused for a different artifact set. An agreement is used until
+ * {@code consumer.agreementCache.minValidity} before the contract end found in its value. Callers invalidate an
+ * agreement that the connector rejects. The cache can be persisted to a file so it survives between runs. It is off
+ * by default, with it the contract negotiation no longer shows up in the measured flows.
+ */
+@Slf4j
+@Component
+public class AgreementCache {
+    private static final String CONTRACT_END = "ids:contractEnd";
+    private static final String CONTRACT_END_IRI = "https://w3id.org/idsa/core/contractEnd";
+
+    @Value("${consumer.agreementCache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${consumer.agreementCache.minValidity:1m}")
+    private Duration minValidity;
+
+    @Value("${consumer.agreementCache.file:#{null}}")
+    private Path file;
+
+    @Value("${consumer.baseUrl}")
+    private String consumerBaseUrl;
+
+    @Value("${producer.baseUrl}")
+    private String producerBaseUrl;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (enabled && Objects.nonNull(file) && Files.exists(file)) {
+            entries.putAll(objectMapper.readValue(file.toFile(), new TypeReference<Map<String, Entry>>() { }));
+            log.debug("Loaded {} cached agreements from {}", entries.size(), file);
+        }
+    }
+
+    public Optional<CachedAgreement> find(UUID offerId, List<String> artifactIds) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        var key = key(offerId, artifactIds);
+        var agreement = entries.get(key);
+        if (Objects.isNull(agreement)) {
+            return Optional.empty();
+        }
+        if (agreement.getValidUntil() <= System.currentTimeMillis() + minValidity.toMillis()) {
+            log.debug("Cached agreement {} ends at {}, dropping it", agreement.getSelfHref(), agreement.getValidUntil());
+            invalidate(offerId, artifactIds);
+            return Optional.empty();
+        }
+        return Optional.of(new CachedAgreement(agreement.getArtifactId(), agreement.getSelfHref(), agreement.getRemoteId()));
+    }
+
+    public void put(UUID offerId, List<String> artifactIds, AgreementResponse agreement) {
+        if (!enabled) {
+            return;
+        }
+        var validUntil = contractEnd(agreement.getValue());
+        if (validUntil <= System.currentTimeMillis() + minValidity.toMillis()) {
+            return;
+        }
+        entries.put(key(offerId, artifactIds), new Entry(String.join(",", artifactIds), agreement.getSelfHref(), agreement.getRemoteId(), validUntil));
+        save();
+    }
+
+    public void invalidate(UUID offerId, List<String> artifactIds) {
+        if (entries.remove(key(offerId, artifactIds)) != null) {
+            save();
+        }
+    }
+
+    private String key(UUID offerId, List<String> artifactIds) {
+        return scope() + "|" + offerId + "|" + String.join(",", artifactIds);
+    }
+
+    private String scope() {
+        return consumerBaseUrl + "|" + producerBaseUrl;
+    }
+
+    /**
+     * Reads the contract end from the JSON-LD agreement value, an agreement without a readable end is treated as
+     * valid indefinitely and relies on the connector rejecting it.
+     */
+    private long contractEnd(String value) {
+        if (Objects.isNull(value)) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            var json = objectMapper.readTree(value);
+            var end = Optional.ofNullable(json.findValue(CONTRACT_END)).orElse(json.findValue(CONTRACT_END_IRI));
+            if (Objects.isNull(end)) {
+                return Long.MAX_VALUE;
+            }
+            var node = end.isArray() ? end.path(0) : end;
+            var text = node.isTextual() ? node.asText() : node.path("@value").asText();
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        } catch (IOException | DateTimeParseException e) {
+            log.debug("Cannot read contract end from agreement: {}", e.getMessage());
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private synchronized void save() {
+        if (Objects.isNull(file)) {
+            return;
+        }
+        try {
+            objectMapper.writeValue(file.toFile(), entries);
+        } catch (IOException e) {
+            log.warn("Cannot persist agreement cache to {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class Entry {
+        private String artifactId;
+        private String selfHref;
+        private String remoteId;
+        private long validUntil;
+    }
+}
@@ -0,0 +1,482 @@
+package com.dih.connector.test.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads artifact data as a stream and hashes it chunk by chunk with the configured {@link ChecksumAlgorithm}, so
+ * memory use does not depend on the artifact size. In segmented mode byte ranges are fetched over several HTTP/1.1
+ * connections into a file and hashed once the file is complete, all segments are pinned to the validator of the
+ * first response. In file mode the stream is written to a file that is kept, resumed with {@code If-Range} when a
+ * partial file and its validator exist and optionally verified through a memory map. Concurrent downloads of the
+ * same artifact write to their own partial files, only the holder of the artifact's lock file resumes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArtifactDownloader {
+    private static final long MAP_WINDOW = 256L * 1024 * 1024;
+    private static final Pattern ARTIFACT_ID = Pattern.compile("/artifacts/([0-9a-fA-F-]{36})");
+
+    @Value("${consumer.data.bufferSize:65536}")
+    private int bufferSize;
+
+    @Value("${consumer.data.segments:4}")
+    private int segments;
+
+    @Value("${consumer.data.minSegmentSize:8388608}")
+    private long minSegmentSize;
+
+    @Value("${consumer.data.segmentRetries:3}")
+    private int segmentRetries;
+
+    @Value("${consumer.data.segmentBackoff:100ms}")
+    private Duration segmentBackoff;
+
+    @Value("${consumer.data.segmentThreads:16}")
+    private int segmentThreads;
+
+    @Value("${consumer.data.directory:#{systemProperties['java.io.tmpdir']}}")
+    private Path directory;
+
+    @Value("${consumer.data.resume:true}")
+    private boolean resume;
+
+    @Value("${consumer.data.verify:false}")
+    private boolean verify;
+
+    @Value("${checksum.algorithm:md5}")
+    private ChecksumAlgorithm algorithm;
+
+    @Qualifier("json-default")
+    private final RestTemplate restTemplateDefault;
+
+    @Qualifier("segments")
+    private final RestTemplate restTemplateSegments;
+
+    private ExecutorService segmentExecutor;
+
+    @PostConstruct
+    public void init() {
+        segmentExecutor = ExecutorFactory.newExecutor("segments", segmentThreads, false);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        segmentExecutor.shutdownNow();
+    }
+
+    public ChecksumAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public DownloadResult download(String dataUrl, DownloadMode mode) {
+        DownloadResult result;
+        switch (mode) {
+            case SEGMENTED:
+                result = downloadSegmented(dataUrl);
+                break;
+            case FILE:
+                result = downloadToFile(dataUrl);
+                break;
+            default:
+                result = downloadStream(dataUrl);
+        }
+        log.info("Downloaded {} bytes in {} ms, time to first byte {} ms, {} bytes/s", result.getBytes(),
+                TimeUnit.NANOSECONDS.toMillis(result.getDurationNanos()),
+                TimeUnit.NANOSECONDS.toMillis(result.getTimeToFirstByteNanos()),
+                String.format("%.0f", result.getBytesPerSecond()));
+        return result;
+    }
+
+    /**
+     * Logs checksum and transfer statistics of every artifact of a batch and the aggregate throughput over the wall
+     * time of the whole batch.
+     */
+    public void report(List<String> dataUrls, List<DownloadResult> results, long elapsedNanos) {
+        long bytes = 0;
+        for (int i = 0; i < results.size(); i++) {
+            var result = results.get(i);
+            var matcher = ARTIFACT_ID.matcher(URI.create(dataUrls.get(i)).getPath());
+            log.info("Artifact {} {}SUM={} {} bytes in {} ms, {} bytes/s", matcher.find() ? matcher.group(1) : dataUrls.get(i),
+                    algorithm, result.getChecksum(), result.getBytes(), TimeUnit.NANOSECONDS.toMillis(result.getDurationNanos()),
+                    String.format("%.0f", result.getBytesPerSecond()));
+            bytes += result.getBytes();
+        }
+        log.info("Consumed {} artifacts, {} bytes in {} ms, aggregate {} bytes/s", results.size(), bytes,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), String.format("%.0f", elapsedNanos == 0 ? 0 : bytes * 1_000_000_000d / elapsedNanos));
+    }
+
+    private DownloadResult downloadStream(String dataUrl) {
+        var start = System.nanoTime();
+        var result = restTemplateDefault.execute(dataUrl, HttpMethod.GET, acceptAll(),
+                response -> hashStream(response.getBody(), start));
+        if (result == null) {
+            throw new RuntimeException("Empty response for " + dataUrl);
+        }
+        return result;
+    }
+
+    private DownloadResult hashStream(InputStream inputStream, long start) throws IOException {
+        var hasher = algorithm.newHasher();
+        var buffer = new byte[bufferSize];
+        long bytes = 0;
+        long firstByte = 0;
+        try (var body = inputStream) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (bytes == 0 && read > 0) {
+                    firstByte = System.nanoTime() - start;
+                }
+                hasher.update(buffer, 0, read);
+                bytes += read;
+            }
+        }
+        return new DownloadResult(hasher.hex(), bytes, firstByte, System.nanoTime() - start, null);
+    }
+
+    private DownloadResult downloadSegmented(String dataUrl) {
+        var start = System.nanoTime();
+        // the probe asks for the first byte, a server without range support answers with the whole body instead
+        var probe = restTemplateSegments.execute(dataUrl, HttpMethod.GET, range(0, 0), response -> {
+            if (response.getRawStatusCode() != HttpStatus.PARTIAL_CONTENT.value()) {
+                return new Probe(-1, 0, null, hashStream(response.getBody(), start));
+            }
+            try (var body = response.getBody()) {
+                body.readAllBytes();
+            }
+            return new Probe(totalLength(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)), System.nanoTime() - start,
+                    validator(response.getHeaders()), null);
+        });
+        if (probe == null) {
+            throw new RuntimeException("Empty response for " + dataUrl);
+        }
+        if (probe.fallback != null) {
+            log.debug("{} does not support ranges, downloaded as a single stream", dataUrl);
+            return probe.fallback;
+        }
+        if (probe.totalLength < 0) {
+            log.debug("{} did not report its length, downloading as a single stream", dataUrl);
+            return downloadStream(dataUrl);
+        }
+        if (probe.validator == null) {
+            log.debug("{} has no strong validator, a change during the download cannot be detected", dataUrl);
+        }
+        var total = probe.totalLength;
+        var count = (int) Math.max(1, Math.min(segments, (total + minSegmentSize - 1) / minSegmentSize));
+        Path file = null;
+        try {
+            file = Files.createTempFile(directory, "artifact-", ".part");
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                var futures = new ArrayList<CompletableFuture<Void>>();
+                for (int i = 0; i < count; i++) {
+                    var from = total * i / count;
+                    var to = total * (i + 1) / count - 1;
+                    futures.add(CompletableFuture.runAsync(() -> fetchSegment(dataUrl, probe.validator, channel, from, to), segmentExecutor));
+                }
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+                var checksum = hashFile(channel, total);
+                return new DownloadResult(checksum, total, probe.timeToFirstByteNanos, System.nanoTime() - start, null);
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ResourceChangedException) {
+                // a single stream cannot mix versions of the data
+                log.warn("{}, downloading it again as a single stream", e.getCause().getMessage());
+                return downloadStream(dataUrl);
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    /**
+     * Fetches a segment with {@code If-Range} set to the validator of the probe and checks the validator of every
+     * partial response, so the file is never stitched together from different versions of the data.
+     */
+    private void fetchSegment(String dataUrl, String validator, FileChannel channel, long from, long to) {
+        var position = new AtomicLong(from);
+        RestClientException lastError = null;
+        for (int attempt = 0; position.get() <= to; attempt++) {
+            if (attempt > segmentRetries) {
+                throw new RuntimeException("Segment " + from + "-" + to + " failed after " + segmentRetries + " retries", lastError);
+            }
+            if (attempt > 0) {
+                log.debug("Retrying segment {}-{} from byte {}", from, to, position.get());
+                pause(attempt);
+            }
+            try {
+                var request = validator != null ? pinnedRange(position.get(), to, validator) : range(position.get(), to);
+                restTemplateSegments.execute(dataUrl, HttpMethod.GET, request, response -> {
+                    if (validator != null && (response.getRawStatusCode() == HttpStatus.OK.value()
+                            || !validator.equals(validator(response.getHeaders())))) {
+                        throw new ResourceChangedException(dataUrl + " changed during the segmented download");
+                    }
+                    if (response.getRawStatusCode() != HttpStatus.PARTIAL_CONTENT.value()) {
+                        throw new IOException("Expected partial content, got HTTP " + response.getRawStatusCode());
+                    }
+                    var buffer = new byte[bufferSize];
+                    try (var body = response.getBody()) {
+                        int read;
+                        while ((read = body.read(buffer)) != -1 && position.get() <= to) {
+                            var byteBuffer = ByteBuffer.wrap(buffer, 0, (int) Math.min(read, to + 1 - position.get()));
+                            while (byteBuffer.hasRemaining()) {
+                                position.addAndGet(channel.write(byteBuffer, position.get()));
+                            }
+                        }
+                    }
+                    return null;
+                });
+            } catch (RestClientException e) {
+                lastError = e;
+            }
+        }
+    }
+
+    private void pause(int attempt) {
+        var nanos = segmentBackoff.toNanos() * attempt;
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(nanos / 2, nanos + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to retry a segment", e);
+        }
+    }
+
+    private String hashFile(FileChannel channel, long length) throws IOException {
+        var hasher = algorithm.newHasher();
+        hashFile(channel, length, hasher);
+        return hasher.hex();
+    }
+
+    /**
+     * Hashes the first {@code length} bytes of the file through memory-mapped windows, so the data is not copied to
+     * the heap.
+     */
+    private void hashFile(FileChannel channel, long length, ChecksumAlgorithm.Hasher hasher) throws IOException {
+        for (long position = 0; position < length; position += MAP_WINDOW) {
+            hasher.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, length - position)));
+        }
+    }
+
+    private DownloadResult downloadToFile(String dataUrl) {
+        var start = System.nanoTime();
+        var target = directory.resolve(fileName(dataUrl));
+        Path partial = null;
+        var shared = false;
+        try (var lockChannel = FileChannel.open(directory.resolve(target.getFileName() + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             var lock = tryLock(lockChannel)) {
+            // the resumable partial file belongs to the lock holder, concurrent downloads of the same artifact
+            // write to partial files of their own
+            shared = lock != null;
+            partial = shared ? directory.resolve(target.getFileName() + ".part") : Files.createTempFile(directory, target.getFileName() + "-", ".part");
+            return writeToFile(dataUrl, target, partial, shared && resume, start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (!shared) {
+                deleteQuietly(partial);
+            }
+        }
+    }
+
+    private DownloadResult writeToFile(String dataUrl, Path target, Path partial, boolean resumable, long start) throws IOException {
+        var validatorFile = partial.resolveSibling(partial.getFileName() + ".validator");
+        try (var channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // without the validator of the partial data there is no way to tell whether the source changed since
+            var validator = resumable && Files.exists(validatorFile) ? Files.readString(validatorFile) : null;
+            var resumeFrom = validator != null ? channel.size() : 0;
+            var extractor = writeResponse(channel, target, resumeFrom, resumable ? validatorFile : null, start);
+            DownloadResult result;
+            try {
+                result = restTemplateDefault.execute(dataUrl, HttpMethod.GET, resumeFrom > 0 ? resumeRange(resumeFrom, validator) : acceptAll(), extractor);
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode() != HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE) {
+                    throw e;
+                }
+                log.debug("Cannot resume {} from byte {}, downloading it again", target, resumeFrom);
+                result = restTemplateDefault.execute(dataUrl, HttpMethod.GET, acceptAll(), extractor);
+            }
+            if (result == null) {
+                throw new RuntimeException("Empty response for " + dataUrl);
+            }
+            if (verify) {
+                var verified = hashFile(channel, result.getBytes());
+                if (!verified.equals(result.getChecksum())) {
+                    throw new RuntimeException("Checksum of " + partial + " is " + verified + ", expected " + result.getChecksum());
+                }
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(validatorFile);
+            log.info("Stored artifact data in {}", target);
+            return result;
+        }
+    }
+
+    /**
+     * Writes the body after the resumed prefix on a 206 and from the start otherwise, e.g. when {@code If-Range} did
+     * not match. The validator of the response is stored first so an interrupted download can be resumed.
+     */
+    private ResponseExtractor<DownloadResult> writeResponse(FileChannel channel, Path target, long resumeFrom, Path validatorFile, long start) {
+        return response -> {
+            var hasher = algorithm.newHasher();
+            long position = 0;
+            if (response.getRawStatusCode() == HttpStatus.PARTIAL_CONTENT.value()) {
+                log.debug("Resuming {} from byte {}", target, resumeFrom);
+                hashFile(channel, resumeFrom, hasher);
+                position = resumeFrom;
+            }
+            channel.truncate(position);
+            if (validatorFile != null) {
+                var validator = validator(response.getHeaders());
+                if (validator != null) {
+                    Files.writeString(validatorFile, validator);
+                } else {
+                    Files.deleteIfExists(validatorFile);
+                }
+            }
+            var buffer = ByteBuffer.allocateDirect(bufferSize);
+            long firstByte = 0;
+            long received = 0;
+            try (var body = Channels.newChannel(response.getBody())) {
+                while (body.read(buffer) != -1) {
+                    if (received == 0 && buffer.position() > 0) {
+                        firstByte = System.nanoTime() - start;
+                    }
+                    buffer.flip();
+                    received += buffer.remaining();
+                    // the same buffer feeds the checksum and the file
+                    hasher.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                    buffer.clear();
+                }
+            }
+            channel.force(false);
+            return new DownloadResult(hasher.hex(), position, firstByte, System.nanoTime() - start, target);
+        };
+    }
+
+    /**
+     * A strong ETag or else the modification date, weak ETags are not allowed in {@code If-Range}.
+     */
+    private static String validator(HttpHeaders headers) {
+        var etag = headers.getETag();
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return headers.getFirst(HttpHeaders.LAST_MODIFIED);
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by another download in this JVM
+            return null;
+        }
+    }
+
+    private static String fileName(String dataUrl) {
+        var path = URI.create(dataUrl).getPath();
+        var matcher = ARTIFACT_ID.matcher(path);
+        return "artifact-" + (matcher.find() ? matcher.group(1) : DigestUtils.sha1Hex(path)) + ".bin";
+    }
+
+    private static RequestCallback acceptAll() {
+        return request -> request.getHeaders().setAccept(List.of(MediaType.ALL));
+    }
+
+    private static RequestCallback range(long from, long to) {
+        return request -> {
+            request.getHeaders().setAccept(List.of(MediaType.ALL));
+            request.getHeaders().set(HttpHeaders.RANGE, "bytes=" + from + "-" + (to < 0 ? "" : String.valueOf(to)));
+            request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "identity");
+        };
+    }
+
+    private static RequestCallback resumeRange(long from, String validator) {
+        return pinnedRange(from, -1, validator);
+    }
+
+    private static RequestCallback pinnedRange(long from, long to, String validator) {
+        return request -> {
+            range(from, to).doWithRequest(request);
+            request.getHeaders().set(HttpHeaders.IF_RANGE, validator);
+        };
+    }
+
+    private static long totalLength(String contentRange) {
+        if (contentRange == null || contentRange.endsWith("/*")) {
+            return -1;
+        }
+        return Long.parseLong(contentRange.substring(contentRange.lastIndexOf('/') + 1).trim());
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Probe {
+        private final long totalLength;
+        private final long timeToFirstByteNanos;
+        private final String validator;
+        private final DownloadResult fallback;
+    }
+
+    private static class ResourceChangedException extends RuntimeException {
+        ResourceChangedException(String message) {
+            super(message);
+        }
+    }
+}
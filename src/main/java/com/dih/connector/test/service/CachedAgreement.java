@@ -0,0 +1,12 @@
+package com.dih.connector.test.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CachedAgreement {
+    private String artifactId;
+    private String selfHref;
+    private String remoteId;
+}
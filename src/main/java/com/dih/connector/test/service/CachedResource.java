@@ -0,0 +1,14 @@
+package com.dih.connector.test.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class CachedResource {
+    private UUID id;
+    private String selfHref;
+    private boolean created;
+}
@@ -0,0 +1,88 @@
+package com.dih.connector.test.service;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.zip.CRC32C;
+
+/**
+ * Checksums used to compare producer and consumer data. CRC32C is not cryptographic but much cheaper for large
+ * payloads.
+ */
+public enum ChecksumAlgorithm {
+    MD5 {
+        @Override
+        public Hasher newHasher() {
+            return new DigestHasher(DigestUtils.getMd5Digest());
+        }
+    },
+    SHA256 {
+        @Override
+        public Hasher newHasher() {
+            return new DigestHasher(DigestUtils.getSha256Digest());
+        }
+    },
+    CRC32C {
+        @Override
+        public Hasher newHasher() {
+            var crc = new CRC32C();
+            return new Hasher() {
+                @Override
+                public void update(byte[] buffer, int offset, int length) {
+                    crc.update(buffer, offset, length);
+                }
+
+                @Override
+                public void update(ByteBuffer buffer) {
+                    crc.update(buffer);
+                }
+
+                @Override
+                public String hex() {
+                    return String.format("%08x", crc.getValue());
+                }
+            };
+        }
+    };
+
+    public abstract Hasher newHasher();
+
+    public String hex(byte[] data) {
+        var hasher = newHasher();
+        hasher.update(data, 0, data.length);
+        return hasher.hex();
+    }
+
+    public interface Hasher {
+        void update(byte[] buffer, int offset, int length);
+
+        void update(ByteBuffer buffer);
+
+        String hex();
+    }
+
+    private static class DigestHasher implements Hasher {
+        private final MessageDigest digest;
+
+        DigestHasher(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public void update(byte[] buffer, int offset, int length) {
+            digest.update(buffer, offset, length);
+        }
+
+        @Override
+        public void update(ByteBuffer buffer) {
+            digest.update(buffer);
+        }
+
+        @Override
+        public String hex() {
+            return Hex.encodeHexString(digest.digest());
+        }
+    }
+}
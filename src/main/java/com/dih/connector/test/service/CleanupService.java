@@ -0,0 +1,204 @@
+package com.dih.connector.test.service;
+
+import com.dih.connector.test.client.connector.api.DataspaceConnectorArtifactsApi;
+import com.dih.connector.test.client.connector.api.DataspaceConnectorContractsApi;
+import com.dih.connector.test.client.connector.api.DataspaceConnectorOffersApi;
+import com.dih.connector.test.client.connector.api.DataspaceConnectorRepresentationsApi;
+import com.dih.connector.test.client.connector.api.DataspaceConnectorRulesApi;
+import com.dih.connector.test.client.connector.model.ArtifactResponse;
+import com.dih.connector.test.client.connector.model.ArtifactsList;
+import com.dih.connector.test.client.connector.model.ContractResponse;
+import com.dih.connector.test.client.connector.model.ContractsList;
+import com.dih.connector.test.client.connector.model.GetListResponse;
+import com.dih.connector.test.client.connector.model.LinkedDTO;
+import com.dih.connector.test.client.connector.model.OfferResponse;
+import com.dih.connector.test.client.connector.model.OffersList;
+import com.dih.connector.test.client.connector.model.RepresentationsList;
+import com.dih.connector.test.client.connector.model.ResourceRepresentationResponse;
+import com.dih.connector.test.client.connector.model.RuleResponse;
+import com.dih.connector.test.client.connector.model.RulesList;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Removes the offers, rules, contracts, representations and artifacts left behind by earlier runs. Resources are
+ * recognised by the title prefixes of {@link ProducerOfferService} and their creation date, resources still held by
+ * the {@link ProducerResourceCache} are kept. Offers go first so no offer is left pointing to deleted resources.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CleanupService {
+
+    @Value("${producer.baseUrl}")
+    private URI producerBaseUrl;
+
+    @Value("${cleanup.olderThan:1h}")
+    private Duration olderThan;
+
+    @Value("${cleanup.dryRun:true}")
+    private boolean dryRun;
+
+    @Value("${cleanup.parallelism:8}")
+    private int parallelism;
+
+    @Value("${cleanup.batchSize:100}")
+    private int batchSize;
+
+    @Value("${cleanup.rate:0}")
+    private double rate;
+
+    @Value("${cleanup.pageSize:100}")
+    private int pageSize;
+
+    private final DataspaceConnectorOffersApi offersApi;
+    private final DataspaceConnectorRulesApi rulesApi;
+    private final DataspaceConnectorContractsApi contractsApi;
+    private final DataspaceConnectorRepresentationsApi representationsApi;
+    private final DataspaceConnectorArtifactsApi artifactsApi;
+    private final ProducerResourceCache resourceCache;
+
+    private long nextPermitNanos;
+
+    public void run() {
+        var apiUri = producerBaseUrl.resolve(producerBaseUrl.getPath() + "/api");
+        var createdBefore = ZonedDateTime.now().minus(olderThan);
+        log.info("{} test resources created before {} on {}", dryRun ? "Listing" : "Deleting", createdBefore, apiUri);
+        var executor = ExecutorFactory.newExecutor("cleanup", parallelism, false);
+        try {
+            clean("offer", ProducerOfferService.OFFER_PREFIX, createdBefore, executor,
+                    listAll((page, size) -> offersApi.getAllOffers(apiUri, page, size), OffersList::getResources),
+                    OfferResponse::getTitle, id -> offersApi.deleteOffer(apiUri, id));
+            clean("contract", ProducerOfferService.CONTRACT_PREFIX, createdBefore, executor,
+                    listAll((page, size) -> contractsApi.getAllContracts(apiUri, page, size), ContractsList::getContracts),
+                    ContractResponse::getTitle, id -> contractsApi.deleteContract(apiUri, id));
+            clean("rule", ProducerOfferService.RULE_PREFIX, createdBefore, executor,
+                    listAll((page, size) -> rulesApi.getAllRules(apiUri, page, size), RulesList::getRules),
+                    RuleResponse::getTitle, id -> rulesApi.deleteRule(apiUri, id));
+            clean("representation", ProducerOfferService.REPRESENTATION_PREFIX, createdBefore, executor,
+                    listAll((page, size) -> representationsApi.getAllRepresentations(apiUri, page, size), RepresentationsList::getRepresentations),
+                    ResourceRepresentationResponse::getTitle, id -> representationsApi.deleteRepresentation(apiUri, id));
+            clean("artifact", ProducerOfferService.ARTIFACT_PREFIX, createdBefore, executor,
+                    listAll((page, size) -> artifactsApi.getAllArtifacts(apiUri, page, size), ArtifactsList::getArtifacts),
+                    ArtifactResponse::getTitle, id -> artifactsApi.deleteArtifact(apiUri, id));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T extends LinkedDTO> void clean(String type, String prefix, ZonedDateTime createdBefore, Executor executor,
+                                             List<T> resources, Function<T, String> title, Consumer<UUID> delete) {
+        var cachedIds = resourceCache.getCachedIds();
+        var candidates = resources.stream()
+                .filter(it -> Optional.ofNullable(title.apply(it)).map(t -> t.startsWith(prefix)).orElse(false))
+                .filter(it -> Objects.nonNull(it.getCreationDate()) && it.getCreationDate().isBefore(createdBefore))
+                .map(LinkedDTO::getUUIDFromLink)
+                .filter(id -> !cachedIds.contains(id))
+                .collect(Collectors.toList());
+        if (dryRun) {
+            log.info("Would delete {} of {} {}s", candidates.size(), resources.size(), type);
+            candidates.forEach(id -> log.debug("Would delete {} {}", type, id));
+            return;
+        }
+        var deleted = new AtomicInteger();
+        var missing = new AtomicInteger();
+        var failed = new AtomicInteger();
+        var stopped = new AtomicBoolean();
+        var start = System.nanoTime();
+        for (int from = 0; from < candidates.size(); from += batchSize) {
+            var batch = candidates.subList(from, Math.min(candidates.size(), from + batchSize)).stream()
+                    .map(id -> CompletableFuture.runAsync(() -> {
+                        if (stopped.get() || !acquirePermit()) {
+                            stopped.set(true);
+                            return;
+                        }
+                        try {
+                            delete.accept(id);
+                            deleted.incrementAndGet();
+                        } catch (FeignException.NotFound e) {
+                            missing.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                // shutting down, the delete was cut short and not rejected by the producer
+                                stopped.set(true);
+                                return;
+                            }
+                            failed.incrementAndGet();
+                            log.warn("Cannot delete {} {}: {}", type, id, e.getMessage());
+                        }
+                    }, executor))
+                    .toArray(CompletableFuture[]::new);
+            try {
+                CompletableFuture.allOf(batch).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped.set(true);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Cleanup of " + type + "s failed", e.getCause());
+            }
+            log.info("Deleted {}/{} {}s, {} already gone, {} failed", deleted.get(), candidates.size(), type, missing.get(), failed.get());
+            if (stopped.get()) {
+                throw new RuntimeException("Cleanup of " + type + "s interrupted");
+            }
+        }
+        log.info("Cleaned up {} {}s in {} ms", deleted.get(), type, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Reads every page up front, deleting while paging would shift the following pages.
+     */
+    private <L, T> List<T> listAll(BiFunction<Integer, Integer, GetListResponse<L>> fetch, Function<L, List<T>> items) {
+        var result = new ArrayList<T>();
+        for (int page = 0; ; page++) {
+            var response = fetch.apply(page, pageSize);
+            Optional.ofNullable(response).map(GetListResponse::getEmbedded).map(items).ifPresent(result::addAll);
+            if (response == null || response.getPage() == null || !response.getPage().hasNext()) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Spaces deletes evenly at {@code cleanup.rate} per second across all workers. Returns false with the interrupt
+     * flag restored when interrupted while waiting.
+     */
+    private boolean acquirePermit() {
+        if (rate <= 0) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        long permit;
+        synchronized (this) {
+            permit = Math.max(System.nanoTime(), nextPermitNanos);
+            nextPermitNanos = permit + (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(permit - System.nanoTime());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.dih.connector.test.service;
 
+import com.dih.connector.test.load.BrokerBenchmarkService;
+import com.dih.connector.test.load.DistributedCoordinator;
+import com.dih.connector.test.load.DistributedWorker;
+import com.dih.connector.test.load.LoadTestService;
+import com.dih.connector.test.load.SoakTestService;
+import com.dih.connector.test.load.WorkloadService;
+import com.dih.connector.test.mock.MockConnectorServer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
@@ -17,14 +25,66 @@ public class CommandLineRunnerService implements ApplicationRunner {
     @Value("${consumer.data.offerId:#{null}}")
     private UUID offerId;
 
-    private final ProducerOfferService producerOfferService;
-    private final ConsumerOfferService consumerOfferService;
+    @Value("${runner.mode:single}")
+    private RunMode mode;
+
+    // providers, so with lazy initialization only the services and clients of the chosen mode are created
+    private final ObjectProvider<ProducerOfferService> producerOfferService;
+    private final ObjectProvider<ConsumerOfferService> consumerOfferService;
+    private final ObjectProvider<ReactiveConsumerOfferService> reactiveConsumerOfferService;
+    private final ObjectProvider<LoadTestService> loadTestService;
+    private final ObjectProvider<SoakTestService> soakTestService;
+    private final ObjectProvider<WorkloadService> workloadService;
+    private final ObjectProvider<CleanupService> cleanupService;
+    private final ObjectProvider<DistributedCoordinator> distributedCoordinator;
+    private final ObjectProvider<DistributedWorker> distributedWorker;
+    private final ObjectProvider<BrokerBenchmarkService> brokerBenchmarkService;
+    private final ObjectProvider<MockConnectorServer> mockConnectorServer;
 
     @Override
     public void run(ApplicationArguments args) throws Exception {
+        if (mode == RunMode.MOCK) {
+            mockConnectorServer.getObject().await();
+            return;
+        }
+        if (mode == RunMode.CLEANUP) {
+            cleanupService.getObject().run();
+            return;
+        }
+        if (mode == RunMode.BROKER) {
+            brokerBenchmarkService.getObject().run();
+            return;
+        }
+        // workers get their offers from the coordinator, the coordinator only creates one when nobody else does
+        if (mode == RunMode.WORKER) {
+            distributedWorker.getObject().run();
+            return;
+        }
+        if (mode == RunMode.COORDINATOR) {
+            distributedCoordinator.getObject().run(offerId);
+            return;
+        }
         if (Objects.isNull(offerId)) {
-            offerId = producerOfferService.createOffer();
+            offerId = producerOfferService.getObject().createOffer();
+        }
+        switch (mode) {
+            case LOAD:
+                loadTestService.getObject().run(offerId);
+                break;
+            case SOAK:
+                soakTestService.getObject().run(offerId);
+                break;
+            case WORKLOAD:
+                workloadService.getObject().run(offerId);
+                break;
+            case SINGLE:
+            default:
+                var reactiveService = reactiveConsumerOfferService.getIfAvailable();
+                if (reactiveService != null) {
+                    reactiveService.consumeOffer(offerId).block();
+                } else {
+                    consumerOfferService.getObject().consumeOffer(offerId);
+                }
         }
-        consumerOfferService.consumeOffer(offerId);
     }
 }
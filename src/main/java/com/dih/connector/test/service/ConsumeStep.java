@@ -0,0 +1,8 @@
+package com.dih.connector.test.service;
+
+public enum ConsumeStep {
+    DESCRIPTION,
+    CONTRACT_NEGOTIATION,
+    ARTIFACT_LISTING,
+    DATA_FETCH
+}
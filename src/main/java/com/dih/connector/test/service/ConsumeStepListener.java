@@ -0,0 +1,8 @@
+package com.dih.connector.test.service;
+
+@FunctionalInterface
+public interface ConsumeStepListener {
+    ConsumeStepListener NONE = (step, nanos) -> { };
+
+    void onStep(ConsumeStep step, long nanos);
+}
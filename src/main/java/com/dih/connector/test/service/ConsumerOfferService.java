@@ -8,22 +8,30 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -39,17 +47,32 @@ public class ConsumerOfferService {
     @Value("${consumer.data.text:false}")
     private boolean isText;
 
+    @Value("${consumer.data.download:buffered}")
+    private DownloadMode downloadMode;
+
+    @Value("${consumer.data.allArtifacts:false}")
+    private boolean allArtifacts;
+
+    @Value("${consumer.data.parallelism:4}")
+    private int parallelism;
+
     @Qualifier("json-ld")
     private final RestTemplate restTemplateLd;
 
     @Qualifier("json-default")
     private final RestTemplate restTemplateDefault;
 
-    @Qualifier("utf16string")
-    private final RestTemplate restTemplateUtf16BEString;
+    private final ArtifactDownloader artifactDownloader;
+
+    private final TextArtifactDecoder textArtifactDecoder;
+
+    private final AgreementCache agreementCache;
+
+    private final DescriptionCache descriptionCache;
 
 
     private ObjectMapper objectMapper;
+    private ExecutorService artifactExecutor;
 
     @PostConstruct
     public void init() {
@@ -58,89 +81,243 @@ public class ConsumerOfferService {
         var prettyPrinter = new DefaultPrettyPrinter();
         prettyPrinter.indentArraysWith(DefaultIndenter.SYSTEM_LINEFEED_INSTANCE);
         objectMapper.setDefaultPrettyPrinter(prettyPrinter);
+        artifactExecutor = ExecutorFactory.newExecutor("artifacts", parallelism, false);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        artifactExecutor.shutdownNow();
     }
 
     public void consumeOffer(UUID offerId) {
-        var url = consumerBaseUrl + "/api/ids/description";
+        consumeOffer(offerId, ConsumeStepListener.NONE);
+    }
+
+    public void consumeOffer(UUID offerId, ConsumeStepListener listener) {
         var headers = new HttpHeaders();
-        var builder = UriComponentsBuilder.fromHttpUrl(url)
-                .queryParam("recipient", producerBaseUrl.normalize() + "/api/ids/data")
-                .queryParam("elementId", producerBaseUrl.normalize() + "/api/offers/" + offerId.toString());
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         var entity = new HttpEntity<String>(headers);
-        var body = Optional.ofNullable(
-                restTemplateLd.postForObject(
-                        builder.toUriString(),
-                        entity,
-                        JsonNode.class
-                )
-        );
-        var permissionJsonNode = body.map(b -> b.get("https://w3id.org/idsa/core/contractOffer")).map(b -> b.get("https://w3id.org/idsa/core/permission"))
-                .orElseThrow(() -> new RuntimeException("Cannot find Permission section in Offer Description"));
-        var artifactNode = body.map(b->b.get("https://w3id.org/idsa/core/representation")).map(b -> b.get("https://w3id.org/idsa/core/instance"))
-                .orElseThrow(() -> new RuntimeException("Cannot find Instance section in Offer Description"));
-        var agreementResponse = negotiateContract(permissionJsonNode, artifactNode, offerId);
-        if (isText) {
-            var movedData = getConsumerData(agreementResponse, dataUrl -> restTemplateUtf16BEString.getForObject(dataUrl, String.class));
-            log.info("Data: {}", movedData );
+        var descriptionUrl = descriptionUrl(consumerBaseUrl, producerBaseUrl, offerId);
+        var description = timed(ConsumeStep.DESCRIPTION, listener, () -> descriptionCache.get(offerId, descriptionUrl,
+                () -> restTemplateLd.postForObject(descriptionUrl, entity, JsonNode.class)));
+        var permissionJsonNode = permissionOf(description);
+        var artifactIds = artifactIdsOf(description, allArtifacts);
+        var cached = agreementCache.find(offerId, artifactIds);
+        if (cached.isPresent()) {
+            try {
+                consumeData(cached.get().getSelfHref(), cached.get().getRemoteId(), artifactIds.size(), listener);
+                return;
+            } catch (HttpClientErrorException e) {
+                log.debug("Cached agreement {} was rejected with HTTP {}, negotiating a new one", cached.get().getSelfHref(), e.getRawStatusCode());
+                agreementCache.invalidate(offerId, artifactIds);
+            } catch (IncompleteAgreementException e) {
+                log.debug("{}, negotiating a new one", e.getMessage());
+                agreementCache.invalidate(offerId, artifactIds);
+            }
+        }
+        var agreementResponse = timed(ConsumeStep.CONTRACT_NEGOTIATION, listener,
+                () -> negotiateContract(permissionJsonNode, artifactIds, offerId));
+        agreementCache.put(offerId, artifactIds, agreementResponse);
+        consumeData(agreementResponse.getSelfHref(), agreementResponse.getRemoteId(), artifactIds.size(), listener);
+    }
+
+    private void consumeData(String agreementHref, String agreementUri, int artifactCount, ConsumeStepListener listener) {
+        if (allArtifacts) {
+            consumeAllArtifacts(agreementHref, agreementUri, artifactCount, listener);
+        } else if (isText) {
+            var result = getConsumerData(agreementHref, agreementUri, listener, textArtifactDecoder::download);
+            log.info("Data: {}{}", result.getPreview(), result.getChars() > result.getPreview().length() ? "..." : "");
+            log.info("Consumer data {}SUM={}", artifactDownloader.getAlgorithm(), result.getChecksum());
+        } else if (downloadMode != DownloadMode.BUFFERED) {
+            var result = getConsumerData(agreementHref, agreementUri, listener, dataUrl -> artifactDownloader.download(dataUrl, downloadMode));
+            log.info("Consumer data {}SUM={}", artifactDownloader.getAlgorithm(), result.getChecksum());
         } else {
-            byte[] data = getConsumerData(agreementResponse, dataUrl -> restTemplateDefault.getForObject(dataUrl, byte[].class));
-            String md5 = DigestUtils.md5Hex(data);
-            log.info("Consumer data MD5SUM={}", md5 );
+            byte[] data = getConsumerData(agreementHref, agreementUri, listener, dataUrl -> restTemplateDefault.getForObject(dataUrl, byte[].class));
+            String checksum = artifactDownloader.getAlgorithm().hex(data);
+            log.info("Consumer data {}SUM={}", artifactDownloader.getAlgorithm(), checksum);
         }
     }
 
+    /**
+     * Lists every artifact of the agreement, following the pages of the listing, and downloads them on
+     * {@code consumer.data.parallelism} threads. Artifacts are streamed, buffered mode would hold all of them in
+     * memory at once.
+     */
+    private void consumeAllArtifacts(String agreementHref, String agreementUri, int artifactCount, ConsumeStepListener listener) {
+        var dataUrls = timed(ConsumeStep.ARTIFACT_LISTING, listener, () -> listArtifacts(agreementHref)).stream()
+                .map(href -> artifactDataUrl(href, agreementUri))
+                .collect(Collectors.toList());
+        if (dataUrls.size() < artifactCount) {
+            throw new IncompleteAgreementException(agreementHref, dataUrls.size(), artifactCount);
+        }
+        var mode = downloadMode == DownloadMode.BUFFERED ? DownloadMode.STREAMING : downloadMode;
+        timed(ConsumeStep.DATA_FETCH, listener, () -> {
+            var start = System.nanoTime();
+            var futures = dataUrls.stream()
+                    .map(dataUrl -> CompletableFuture.supplyAsync(() -> artifactDownloader.download(dataUrl, mode), artifactExecutor))
+                    .collect(Collectors.toList());
+            try {
+                var results = futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+                artifactDownloader.report(dataUrls, results, System.nanoTime() - start);
+                return results;
+            } catch (CompletionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        });
+    }
 
-    private AgreementResponse negotiateContract(JsonNode permissionJson, JsonNode artifactNode, UUID offerId) {
-        var url = consumerBaseUrl + "/api/ids/contract";
-        var headers = new HttpHeaders();
-        var builder = UriComponentsBuilder.fromHttpUrl(url)
-                .queryParam("recipient", producerBaseUrl.normalize() + "/api/ids/data")
-                .queryParam("resourceIds", producerBaseUrl.normalize() + "/api/offers/" + offerId.toString())
-                .queryParam("artifactIds", artifactNode.path("@id").asText())
-                .queryParam("download", "true");
+    private List<String> listArtifacts(String agreementHref) {
+        var hrefs = new ArrayList<String>();
+        var next = agreementHref + "/artifacts";
+        while (Objects.nonNull(next)) {
+            var page = restTemplateDefault.getForObject(next, JsonNode.class);
+            hrefs.addAll(artifactHrefs(page));
+            next = nextPage(page);
+        }
+        return hrefs;
+    }
 
-        var body = getContractAgreementPayload(permissionJson.get("@id").asText(), artifactNode.path("@id").asText());
+    private AgreementResponse negotiateContract(JsonNode permissionJson, List<String> artifactIds, UUID offerId) {
+        var headers = new HttpHeaders();
+        var body = getContractAgreementPayload(objectMapper, permissionJson.get("@id").asText(), artifactIds);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         var entity = new HttpEntity<>(body, headers);
         return  restTemplateDefault.postForObject(
-                builder.toUriString(),
+                contractUrl(consumerBaseUrl, producerBaseUrl, offerId, artifactIds),
                 entity,
                 AgreementResponse.class
         );
     }
 
-    private JsonNode getContractAgreementPayload(String ruleId, String artifactId) {
-        var node = objectMapper.createObjectNode()
-                        .put("@type", "ids:Permission")
-                        .put("@id", ruleId);
-        node.putArray("ids:description")
-                .addObject().put("@value", "provide-access").put("@type", "http://www.w3.org/2001/XMLSchema#string");
-        node.putArray("ids:title")
-                .addObject().put("@value", "Allow Data Usage").put("@type", "http://www.w3.org/2001/XMLSchema#string");
-        node.putArray("ids:action")
-                .addObject().put("@id", "https://w3id.org/idsa/code/USE");
-        node.put("ids:target", artifactId);
-        return objectMapper.createArrayNode().add(node);
+    static String descriptionUrl(URI consumerBaseUrl, URI producerBaseUrl, UUID offerId) {
+        return UriComponentsBuilder.fromHttpUrl(consumerBaseUrl + "/api/ids/description")
+                .queryParam("recipient", producerBaseUrl.normalize() + "/api/ids/data")
+                .queryParam("elementId", producerBaseUrl.normalize() + "/api/offers/" + offerId.toString())
+                .toUriString();
     }
 
-    private <T> T getConsumerData(AgreementResponse agreementResponse, Function<String, T> httpGet) {
-        var artifactsJson = Optional.ofNullable(
-                restTemplateDefault.getForObject(agreementResponse.getSelfHref() + "/artifacts", JsonNode.class)
-        );
-        var dataUrl = artifactsJson.map(aj -> aj.get("_embedded"))
-                .map(em -> em.get("artifacts"))
-                .map(a -> a.get(0))
-                .map(z -> z.get("_links"))
-                .map(l -> l.get("self"))
-                .map(s -> s.get("href"))
-                .map(JsonNode::asText)
-                .map(s -> s.concat("/data"))
+    static String contractUrl(URI consumerBaseUrl, URI producerBaseUrl, UUID offerId, List<String> artifactIds) {
+        return UriComponentsBuilder.fromHttpUrl(consumerBaseUrl + "/api/ids/contract")
+                .queryParam("recipient", producerBaseUrl.normalize() + "/api/ids/data")
+                .queryParam("resourceIds", producerBaseUrl.normalize() + "/api/offers/" + offerId.toString())
+                .queryParam("artifactIds", String.join(",", artifactIds))
+                .queryParam("download", "true")
+                .toUriString();
+    }
+
+    static JsonNode permissionOf(JsonNode description) {
+        return Optional.ofNullable(description).map(b -> b.get("https://w3id.org/idsa/core/contractOffer")).map(b -> b.get("https://w3id.org/idsa/core/permission"))
+                .orElseThrow(() -> new RuntimeException("Cannot find Permission section in Offer Description"));
+    }
+
+    /**
+     * Returns the ids of the artifact instances of all representations, compaction leaves a single representation
+     * or instance as an object and several as an array. Without {@code all} only the first artifact is returned.
+     */
+    static List<String> artifactIdsOf(JsonNode description, boolean all) {
+        var ids = new ArrayList<String>();
+        for (var representation : asList(Optional.ofNullable(description).map(b -> b.get("https://w3id.org/idsa/core/representation")).orElse(null))) {
+            for (var instance : asList(representation.get("https://w3id.org/idsa/core/instance"))) {
+                ids.add(instance.path("@id").asText());
+                if (!all) {
+                    return ids;
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new RuntimeException("Cannot find Instance section in Offer Description");
+        }
+        return ids;
+    }
+
+    private static List<JsonNode> asList(JsonNode node) {
+        if (Objects.isNull(node)) {
+            return List.of();
+        }
+        var nodes = new ArrayList<JsonNode>();
+        if (node.isArray()) {
+            node.forEach(nodes::add);
+        } else {
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    static JsonNode getContractAgreementPayload(ObjectMapper objectMapper, String ruleId, String artifactId) {
+        return getContractAgreementPayload(objectMapper, ruleId, List.of(artifactId));
+    }
+
+    static JsonNode getContractAgreementPayload(ObjectMapper objectMapper, String ruleId, List<String> artifactIds) {
+        var rules = objectMapper.createArrayNode();
+        for (var artifactId : artifactIds) {
+            var node = objectMapper.createObjectNode()
+                            .put("@type", "ids:Permission")
+                            .put("@id", ruleId);
+            node.putArray("ids:description")
+                    .addObject().put("@value", "provide-access").put("@type", "http://www.w3.org/2001/XMLSchema#string");
+            node.putArray("ids:title")
+                    .addObject().put("@value", "Allow Data Usage").put("@type", "http://www.w3.org/2001/XMLSchema#string");
+            node.putArray("ids:action")
+                    .addObject().put("@id", "https://w3id.org/idsa/code/USE");
+            node.put("ids:target", artifactId);
+            rules.add(node);
+        }
+        return rules;
+    }
+
+    private <T> T getConsumerData(String agreementHref, String agreementUri, ConsumeStepListener listener, Function<String, T> httpGet) {
+        var artifactsJson = timed(ConsumeStep.ARTIFACT_LISTING, listener,
+                () -> restTemplateDefault.getForObject(agreementHref + "/artifacts", JsonNode.class));
+        var dataUrl = dataUrl(artifactsJson, agreementUri);
+        return timed(ConsumeStep.DATA_FETCH, listener, () -> httpGet.apply(dataUrl));
+    }
+
+    static String dataUrl(JsonNode artifactsJson, String agreementUri) {
+        return artifactHrefs(artifactsJson).stream()
+                .findFirst()
+                .map(href -> artifactDataUrl(href, agreementUri))
                 .orElseThrow( () -> new RuntimeException("Couldn't construct data retrieval URL from Artifact JSON"));
-        var builder = UriComponentsBuilder.fromHttpUrl(dataUrl)
-                .queryParam("agreementUri", agreementResponse.getRemoteId())
-                .queryParam("download", true);
-        return httpGet.apply(builder.toUriString());
     }
 
+    static String artifactDataUrl(String artifactHref, String agreementUri) {
+        return UriComponentsBuilder.fromHttpUrl(artifactHref.concat("/data"))
+                .queryParam("agreementUri", agreementUri)
+                .queryParam("download", true)
+                .toUriString();
+    }
+
+    static List<String> artifactHrefs(JsonNode artifactsJson) {
+        var hrefs = new ArrayList<String>();
+        Optional.ofNullable(artifactsJson).map(aj -> aj.get("_embedded"))
+                .map(em -> em.get("artifacts"))
+                .ifPresent(artifacts -> artifacts.forEach(artifact -> {
+                    var href = artifact.path("_links").path("self").path("href");
+                    if (href.isTextual()) {
+                        hrefs.add(href.asText());
+                    }
+                }));
+        return hrefs;
+    }
+
+    static String nextPage(JsonNode page) {
+        var next = page == null ? null : page.path("_links").path("next").path("href");
+        return next != null && next.isTextual() ? next.asText() : null;
+    }
+
+    private static <T> T timed(ConsumeStep step, ConsumeStepListener listener, Supplier<T> call) {
+        var start = System.nanoTime();
+        var result = call.get();
+        listener.onStep(step, System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * The agreement lists fewer artifacts than the offer has, e.g. a cached agreement of a narrower selection.
+     */
+    static class IncompleteAgreementException extends RuntimeException {
+        IncompleteAgreementException(String agreementHref, int listed, int expected) {
+            super("Agreement " + agreementHref + " covers " + listed + " of " + expected + " artifacts");
+        }
+    }
 }
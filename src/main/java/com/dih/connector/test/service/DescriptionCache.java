@@ -0,0 +1,153 @@
+package com.dih.connector.test.service;
+
+import com.dih.connector.test.client.connector.api.DataspaceConnectorOffersApi;
+import com.fasterxml.jackson.databind.JsonNode;
+import feign.FeignException;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded LRU cache of compacted offer descriptions keyed by description request, so repeated consume flows
+ * skip the round trip and the JSON-LD compaction. Entries older than the TTL are revalidated against the
+ * modificationDate of the producer offer when the description carries its ids:modified date, otherwise they are
+ * fetched again. It is off by default, with it the description request is no longer measured.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DescriptionCache {
+    private static final String MODIFIED = "https://w3id.org/idsa/core/modified";
+
+    @Value("${consumer.descriptionCache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${consumer.descriptionCache.maxEntries:1000}")
+    private int maxEntries;
+
+    @Value("${consumer.descriptionCache.ttl:5m}")
+    private Duration ttl;
+
+    @Value("${producer.baseUrl}")
+    private URI producerBaseUrl;
+
+    private final DataspaceConnectorOffersApi offersApi;
+
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private URI producerApiUri;
+    private Map<String, Entry> entries;
+
+    @PostConstruct
+    public void init() {
+        producerApiUri = producerBaseUrl.resolve(producerBaseUrl.getPath() + "/api");
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public JsonNode get(UUID offerId, String descriptionUrl, Supplier<JsonNode> fetch) {
+        if (!enabled) {
+            return fetch.get();
+        }
+        synchronized (locks.computeIfAbsent(descriptionUrl, k -> new Object())) {
+            var description = lookup(offerId, descriptionUrl);
+            if (Objects.isNull(description)) {
+                description = fetch.get();
+                put(descriptionUrl, description);
+            }
+            return description;
+        }
+    }
+
+    public Mono<JsonNode> get(UUID offerId, String descriptionUrl, Mono<JsonNode> fetch) {
+        if (!enabled) {
+            return fetch;
+        }
+        // revalidation calls the producer through the blocking Feign client
+        return Mono.fromCallable(() -> lookup(offerId, descriptionUrl))
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(fetch.doOnNext(description -> put(descriptionUrl, description)));
+    }
+
+    private JsonNode lookup(UUID offerId, String descriptionUrl) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(descriptionUrl);
+        }
+        if (Objects.isNull(entry)) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.validatedAt < ttl.toMillis()) {
+            return entry.description;
+        }
+        if (Objects.nonNull(entry.modified) && unchanged(offerId, entry.modified)) {
+            entry.validatedAt = System.currentTimeMillis();
+            return entry.description;
+        }
+        log.debug("Cached description of offer {} is outdated", offerId);
+        synchronized (this) {
+            entries.remove(descriptionUrl);
+        }
+        return null;
+    }
+
+    private boolean unchanged(UUID offerId, Instant modified) {
+        try {
+            var modificationDate = offersApi.getOffer(producerApiUri, offerId).getModificationDate();
+            return Objects.nonNull(modificationDate) && !modificationDate.toInstant().isAfter(modified);
+        } catch (FeignException e) {
+            log.debug("Cannot revalidate description of offer {}: {}", offerId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void put(String descriptionUrl, JsonNode description) {
+        if (Objects.isNull(description)) {
+            return;
+        }
+        var entry = new Entry(description, modified(description), System.currentTimeMillis());
+        synchronized (this) {
+            entries.put(descriptionUrl, entry);
+        }
+    }
+
+    private static Instant modified(JsonNode description) {
+        var node = description.path(MODIFIED);
+        var value = node.isTextual() ? node.asText() : node.path("@value").asText(null);
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final JsonNode description;
+        private final Instant modified;
+        private volatile long validatedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.dih.connector.test.service;
+
+public enum DownloadMode {
+    BUFFERED,
+    STREAMING,
+    SEGMENTED,
+    FILE
+}
@@ -0,0 +1,20 @@
+package com.dih.connector.test.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+@Data
+@AllArgsConstructor
+public class DownloadResult {
+    private String checksum;
+    private long bytes;
+    private long timeToFirstByteNanos;
+    private long durationNanos;
+    private Path file;
+
+    public double getBytesPerSecond() {
+        return durationNanos == 0 ? 0 : bytes * 1_000_000_000d / durationNanos;
+    }
+}
@@ -0,0 +1,42 @@
+package com.dih.connector.test.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates executors for concurrent test flows. Virtual threads are used when the running JVM provides them
+ * (Java 21+), otherwise a bounded platform thread pool is created. The lookup is reflective so the project
+ * still compiles for Java 11.
+ */
+@Slf4j
+public final class ExecutorFactory {
+
+    private ExecutorFactory() {
+    }
+
+    public static ExecutorService newExecutor(String name, int threads, boolean preferVirtualThreads) {
+        if (preferVirtualThreads) {
+            try {
+                var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                log.debug("Using virtual threads for {}", name);
+                return (ExecutorService) method.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                log.debug("Virtual threads are not available, using {} platform threads for {}", threads, name);
+            }
+        }
+        return Executors.newFixedThreadPool(threads, namedThreadFactory(name));
+    }
+
+    public static ThreadFactory namedThreadFactory(String name) {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
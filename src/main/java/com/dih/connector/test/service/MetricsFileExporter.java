@@ -0,0 +1,71 @@
+package com.dih.connector.test.service;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes all metrics in Prometheus text format to {@code metrics.export.file}, periodically when an interval is set
+ * and always on shutdown, so runs can be compared without a Prometheus server.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+public class MetricsFileExporter {
+
+    @Value("${metrics.export.file:#{null}}")
+    private Path file;
+
+    @Value("${metrics.export.interval:0s}")
+    private Duration interval;
+
+    private final PrometheusMeterRegistry prometheusMeterRegistry;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (Objects.nonNull(file) && !interval.isZero()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(ExecutorFactory.namedThreadFactory("metrics-export"));
+            scheduler.scheduleAtFixedRate(this::export, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        export();
+    }
+
+    public void export() {
+        if (Objects.isNull(file)) {
+            return;
+        }
+        try {
+            var tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            Files.writeString(tmp, prometheusMeterRegistry.scrape(), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Cannot export metrics to {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -7,24 +7,29 @@ import com.dih.connector.test.client.connector.api.DataspaceConnectorOffersApi;
 import com.dih.connector.test.client.connector.api.DataspaceConnectorRepresentationsApi;
 import com.dih.connector.test.client.connector.api.DataspaceConnectorRulesApi;
 import com.dih.connector.test.client.connector.model.ArtifactDescription;
+import com.dih.connector.test.client.connector.model.ArtifactResponse;
 import com.dih.connector.test.client.connector.model.CatalogDescription;
 import com.dih.connector.test.client.connector.model.CatalogList;
 import com.dih.connector.test.client.connector.model.ContractDescription;
 import com.dih.connector.test.client.connector.model.GetListResponse;
 import com.dih.connector.test.client.connector.model.OfferDescription;
+import com.dih.connector.test.client.connector.model.OfferResponse;
 import com.dih.connector.test.client.connector.model.ResourceRepresentationDescription;
 import com.dih.connector.test.client.connector.model.RuleDescription;
+import com.dih.connector.test.payload.PayloadServer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
@@ -34,11 +39,19 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProducerOfferService {
+    public static final String OFFER_PREFIX = "testOffer-";
+    public static final String RULE_PREFIX = "Rule_";
+    public static final String CONTRACT_PREFIX = "Contract_";
+    public static final String REPRESENTATION_PREFIX = "Representation_";
+    public static final String ARTIFACT_PREFIX = "Artifact_";
     private static final String TEST_CATALOG = "test_catalog";
     private static final String PROVIDE_ACCESS_POLICY = "{ \"@context\" : { \"ids\" : \"https://w3id.org/idsa/core/\", \"idsc\" : \"https://w3id.org/idsa/code/\" }, \"@type\" : \"ids:Permission\", \"@id\" : \"https://w3id.org/idsa/autogen/permission/658ca300-4042-4804-839a-3c9548dcc26e\", \"ids:action\" : [ { \"@id\" : \"https://w3id.org/idsa/code/USE\" } ], \"ids:description\" : [ { \"@value\" : \"provide-access\", \"@type\" : \"http://www.w3.org/2001/XMLSchema#string\" } ], \"ids:title\" : [ { \"@value\" : \"Allow Data Usage\", \"@type\" : \"http://www.w3.org/2001/XMLSchema#string\" } ] }";
     private static final String CONTRACT_END_DATE = LocalDate.of(2999, 1, 1).atStartOfDay(ZoneOffset.UTC).toString();
@@ -52,78 +65,160 @@ public class ProducerOfferService {
     @Value("${producer.data.url:#{null}}")
     private URI remoteDataUri;
 
+    @Value("${producer.data.size:#{null}}")
+    private DataSize dataSize;
+
+    @Value("${producer.data.seed:42}")
+    private long dataSeed;
+
+    @Value("${producer.data.artifacts:1}")
+    private int artifactCount;
+
+    @Value("${producer.provisioning.parallelism:6}")
+    private int provisioningParallelism;
+
     private final DataspaceConnectorOffersApi offersApi;
     private final DataspaceConnectorCatalogsApi catalogsApi;
     private final DataspaceConnectorRulesApi rulesApi;
     private final DataspaceConnectorContractsApi contractsApi;
     private final DataspaceConnectorRepresentationsApi representationsApi;
     private final DataspaceConnectorArtifactsApi artifactsApi;
+    private final ProducerResourceCache resourceCache;
+    private final RemoteChecksumService remoteChecksumService;
+    private final ObjectProvider<PayloadServer> payloadServer;
 
     private URI producerApiUri;
+    private ExecutorService provisioningExecutor;
 
     @PostConstruct
     public void init() {
         producerApiUri = producerBaseUrl.resolve(producerBaseUrl.getPath() + "/api");
+        provisioningExecutor = ExecutorFactory.newExecutor("provisioning", provisioningParallelism, false);
+        if (Objects.nonNull(dataSize)) {
+            remoteDataUri = syntheticDataUri(dataSize, dataSeed);
+            log.info("Artifacts point to synthetic payload {}", remoteDataUri);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        provisioningExecutor.shutdownNow();
+    }
+
+    /**
+     * Registers an offer without catalog, contract and artifacts, enough to publish it to a broker.
+     */
+    public OfferResponse registerOffer() {
+        return offersApi.registerOffer(producerApiUri, getOfferDescription(System.currentTimeMillis()));
+    }
+
+    /**
+     * URL of a seeded pseudo-random payload of the given size on the embedded {@link PayloadServer}.
+     */
+    public URI syntheticDataUri(DataSize size, long seed) {
+        return Optional.ofNullable(payloadServer.getIfAvailable())
+                .map(server -> server.url(size, seed))
+                .orElseThrow(() -> new RuntimeException("Synthetic payloads need payload.server.enabled=true"));
     }
 
     public UUID createOffer() throws IOException {
+        return createOffer(dataText, remoteDataUri);
+    }
+
+    /**
+     * Creates an offer whose artifacts hold the given text or point to the given URL, independent of the
+     * {@code producer.data.*} properties.
+     */
+    public UUID createOffer(String dataText, URI remoteDataUri) throws IOException {
         var testTimeMillis = System.currentTimeMillis();
+        var artifactDescription = getArtifactDescription(testTimeMillis, "", dataText, remoteDataUri);
+        // the artifact only points to the URL when no text is given
+        var remoteChecksum = StringUtils.isBlank(dataText) && Objects.nonNull(remoteDataUri) ? remoteChecksumService.checksumAsync(remoteDataUri) : null;
+        var graph = new ProvisioningGraph();
 
         // create offer
-        var offerResponse = offersApi.registerOffer(producerApiUri, getOfferDescription(testTimeMillis));
-        var offerId = offerResponse.getUUIDFromLink();
-        var offerSelfHref = offerResponse.getSelfHref();
+        var offer = graph.step("registerOffer", () -> offersApi.registerOffer(producerApiUri, getOfferDescription(testTimeMillis)));
 
         // get or create catalog
-        var catalogResponse = Optional.ofNullable(catalogsApi.getAllCatalogs(producerApiUri))
-                .map(GetListResponse::getEmbedded)
-                .map(CatalogList::getCatalogs)
-                .orElseGet(ArrayList::new)
-                .stream()
-                .filter(it -> TEST_CATALOG.equals(it.getTitle()))
-                .findFirst()
-                .orElseGet(() -> catalogsApi.createCatalog(producerApiUri, getCatalogDescription()));
-        var catalogId = catalogResponse.getUUIDFromLink();
+        var catalog = graph.step("getOrCreateCatalog", () -> resourceCache.getOrCreate("catalog", TEST_CATALOG,
+                id -> catalogsApi.getCatalog(producerApiUri, id),
+                () -> Optional.ofNullable(catalogsApi.getAllCatalogs(producerApiUri))
+                        .map(GetListResponse::getEmbedded)
+                        .map(CatalogList::getCatalogs)
+                        .orElseGet(ArrayList::new)
+                        .stream()
+                        .filter(it -> TEST_CATALOG.equals(it.getTitle()))
+                        .findFirst()
+                        .orElseGet(() -> catalogsApi.createCatalog(producerApiUri, getCatalogDescription()))));
 
-        // link offer with catalog
-        catalogsApi.linkOffer(producerApiUri, catalogId, List.of(offerResponse.getSelfHref()));
+        // get or create rule
+        var rule = graph.step("getOrRegisterRule", () -> resourceCache.getOrCreate("rule", PROVIDE_ACCESS_POLICY,
+                id -> rulesApi.getRule(producerApiUri, id),
+                () -> rulesApi.registerRule(producerApiUri, getRuleDescription(testTimeMillis))));
 
-        // create rule
-        var ruleResponse = rulesApi.registerRule(producerApiUri, getRuleDescription(testTimeMillis));
-        var ruleId = ruleResponse.getUUIDFromLink();
-        var ruleSelfHref = ruleResponse.getSelfHref();
+        // get or create contract, a cached contract is already linked with the rule so only its key waits for the rule
+        var cached = resourceCache.isEnabled();
+        var contract = graph.step("getOrCreateContract", () -> resourceCache.getOrCreate("contract",
+                cached ? CONTRACT_END_DATE + "|" + rule.get().getId() : CONTRACT_END_DATE,
+                id -> contractsApi.getContract(producerApiUri, id),
+                () -> contractsApi.createContract(producerApiUri, getContractDescription(testTimeMillis))),
+                cached ? new ProvisioningGraph.Step<?>[]{rule} : new ProvisioningGraph.Step<?>[0]);
 
-        // create contract
-        var contractResponse = contractsApi.createContract(producerApiUri, getContractDescription(testTimeMillis));
-        var contractId = contractResponse.getUUIDFromLink();
+        // create representation
+        var representation = graph.step("registerRepresentation", () -> representationsApi.registerRepresentation(producerApiUri, getRepresentation(testTimeMillis)));
 
-        contractsApi.linkRules(producerApiUri, contractId, List.of(ruleSelfHref));
-        contractsApi.linkOffers(producerApiUri, contractId, List.of(offerSelfHref));
+        // create artifacts, all of them point to the same data
+        var artifacts = new ArrayList<ProvisioningGraph.Step<ArtifactResponse>>();
+        for (int i = 0; i < artifactCount; i++) {
+            var description = i == 0 ? artifactDescription : getArtifactDescription(testTimeMillis, "_" + i, dataText, remoteDataUri);
+            artifacts.add(graph.step(i == 0 ? "registerArtifact" : "registerArtifact" + i, () -> artifactsApi.registerArtifact(producerApiUri, description)));
+        }
 
-        // create representation
-        var representationResponse = representationsApi.registerRepresentation(producerApiUri, getRepresentation(testTimeMillis));
-        var representationId = representationResponse.getUUIDFromLink();
-        var representationSelfHref = representationResponse.getSelfHref();
+        // links keep their original order, each one waits for the previous link and the resources it connects
+        // link offer with catalog
+        var catalogOffer = graph.step("linkCatalogOffer", () -> catalogsApi.linkOffer(producerApiUri,
+                catalog.get().getId(), List.of(offer.get().getSelfHref())), catalog, offer);
 
-        // create artifact
-        var artifactDescription = getArtifactDescription(testTimeMillis);
-        var artifactResponse = artifactsApi.registerArtifact(producerApiUri, artifactDescription);
-        var artifactId = artifactResponse.getUUIDFromLink();
-        var artifactSelfHref = artifactResponse.getSelfHref();
+        var contractRules = graph.step("linkContractRules", () -> {
+            if (contract.get().isCreated()) {
+                contractsApi.linkRules(producerApiUri, contract.get().getId(), List.of(rule.get().getSelfHref()));
+            }
+        }, contract, rule, catalogOffer);
+        var contractOffers = graph.step("linkContractOffers", () -> contractsApi.linkOffers(producerApiUri,
+                contract.get().getId(), List.of(offer.get().getSelfHref())), contract, offer, contractRules);
 
         // link artifact with representation
-        representationsApi.linkArtifacts(producerApiUri, representationId, List.of(artifactSelfHref));
+        var linkDependencies = new ArrayList<ProvisioningGraph.Step<?>>(artifacts);
+        linkDependencies.add(representation);
+        linkDependencies.add(contractOffers);
+        var representationArtifacts = graph.step("linkRepresentationArtifacts", () -> representationsApi.linkArtifacts(producerApiUri,
+                representation.get().getUUIDFromLink(), artifacts.stream().map(artifact -> artifact.get().getSelfHref()).collect(Collectors.toList())),
+                linkDependencies.toArray(ProvisioningGraph.Step<?>[]::new));
 
         // link representation with resource
-        offersApi.linkRepresentations(producerApiUri, offerId, List.of(representationSelfHref));
+        graph.step("linkOfferRepresentations", () -> offersApi.linkRepresentations(producerApiUri,
+                offer.get().getUUIDFromLink(), List.of(representation.get().getSelfHref())), offer, representation, representationArtifacts);
+
+        graph.run(provisioningExecutor);
+
+        var offerId = offer.get().getUUIDFromLink();
+        var catalogId = catalog.get().getId();
+        var ruleId = rule.get().getId();
+        var contractId = contract.get().getId();
+        var representationId = representation.get().getUUIDFromLink();
+        var artifactIds = artifacts.stream().map(artifact -> artifact.get().getUUIDFromLink()).collect(Collectors.toList());
 
         log.info("Created: \nOffer {}\nCatalog {}\nRule {}\nContract {}\nRepresentation {}\nArtifact {}", offerId, catalogId,
-                ruleId, contractId, representationId, artifactId);
-        log.info("Artifact description {}", artifactDescription);
-        if (Objects.nonNull(remoteDataUri)) {
-            try (InputStream is = remoteDataUri.toURL().openConnection().getInputStream()) {
-                String md5 = DigestUtils.md5Hex(is);
-                log.info("Remote data MD5SUM={}", md5);
+                ruleId, contractId, representationId, artifactIds.size() == 1 ? artifactIds.get(0) : artifactIds);
+        log.info("Artifact description {}", StringUtils.abbreviate(artifactDescription.toString(), 1024));
+        if (Objects.nonNull(remoteChecksum)) {
+            try {
+                log.info("Remote data {}SUM={}", remoteChecksumService.getAlgorithm(), remoteChecksum.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw e;
             }
         }
         return offerId;
@@ -131,8 +226,8 @@ public class ProducerOfferService {
 
     private OfferDescription getOfferDescription(long testTimeMillis) {
         return OfferDescription.builder()
-                .title("testOffer-" + testTimeMillis)
-                .description("testOffer-" + testTimeMillis)
+                .title(OFFER_PREFIX + testTimeMillis)
+                .description(OFFER_PREFIX + testTimeMillis)
                 .publisher(URI.create("http://localhost"))
                 .language("EN")
                 .sovereign(URI.create("http://localhost"))
@@ -148,14 +243,14 @@ public class ProducerOfferService {
 
     private RuleDescription getRuleDescription(long testTimeMillis) {
         return RuleDescription.builder()
-                .title("Rule_" + testTimeMillis)
+                .title(RULE_PREFIX + testTimeMillis)
                 .value(PROVIDE_ACCESS_POLICY)
                 .build();
     }
 
     private ContractDescription getContractDescription(long testTimeMillis) {
         return ContractDescription.builder()
-                .title("Contract_" + testTimeMillis)
+                .title(CONTRACT_PREFIX + testTimeMillis)
                 .start(ZonedDateTime.now(ZoneOffset.UTC).toString())
                 .end(CONTRACT_END_DATE)
                 .build();
@@ -163,15 +258,15 @@ public class ProducerOfferService {
 
     private ResourceRepresentationDescription getRepresentation(long testTimeMillis) {
         return ResourceRepresentationDescription.builder()
-                .title("Representation_" + testTimeMillis)
-                .description("Representation_" + testTimeMillis)
+                .title(REPRESENTATION_PREFIX + testTimeMillis)
+                .description(REPRESENTATION_PREFIX + testTimeMillis)
                 .mediaType(MediaType.APPLICATION_JSON_VALUE)
                 .language("EN")
                 .build();
     }
 
-    private ArtifactDescription getArtifactDescription(long testTimeMillis) {
-        var builder = ArtifactDescription.builder().title("Artifact_" + testTimeMillis);
+    private ArtifactDescription getArtifactDescription(long testTimeMillis, String suffix, String dataText, URI remoteDataUri) {
+        var builder = ArtifactDescription.builder().title(ARTIFACT_PREFIX + testTimeMillis + suffix);
         if (StringUtils.isNotBlank(dataText)) {
             builder.value(dataText);
         } else if (remoteDataUri != null) {
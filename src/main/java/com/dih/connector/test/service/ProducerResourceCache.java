@@ -0,0 +1,122 @@
+package com.dih.connector.test.service;
+
+import com.dih.connector.test.client.connector.model.LinkedDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of reusable producer resources keyed by a hash of their content. Entries younger than the TTL are used as
+ * is, older entries are validated with a GET and dropped when the producer no longer knows them. The cache can be
+ * persisted to a file so it survives between runs. It is off by default, with it the creation of catalog, rule and
+ * contract is no longer measured.
+ */
+@Slf4j
+@Component
+public class ProducerResourceCache {
+
+    @Value("${producer.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${producer.cache.ttl:1h}")
+    private Duration ttl;
+
+    @Value("${producer.cache.file:#{null}}")
+    private Path file;
+
+    @Value("${producer.baseUrl}")
+    private String producerBaseUrl;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (enabled && Objects.nonNull(file) && Files.exists(file)) {
+            entries.putAll(objectMapper.readValue(file.toFile(), new TypeReference<Map<String, Entry>>() { }));
+            log.debug("Loaded {} cached producer resources from {}", entries.size(), file);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T extends LinkedDTO> CachedResource getOrCreate(String type, String content, Function<UUID, T> fetch, Supplier<T> create) {
+        if (!enabled) {
+            return toResource(create.get(), true);
+        }
+        var key = type + ":" + DigestUtils.sha256Hex(producerBaseUrl + "|" + content);
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            var entry = entries.get(key);
+            if (entry != null) {
+                if (System.currentTimeMillis() - entry.getValidatedAt() < ttl.toMillis()) {
+                    return new CachedResource(entry.getId(), entry.getSelfHref(), false);
+                }
+                try {
+                    fetch.apply(entry.getId());
+                    entry.setValidatedAt(System.currentTimeMillis());
+                    save();
+                    return new CachedResource(entry.getId(), entry.getSelfHref(), false);
+                } catch (FeignException.NotFound e) {
+                    log.debug("Cached {} {} is gone, creating a new one", type, entry.getId());
+                    entries.remove(key);
+                }
+            }
+            var resource = toResource(create.get(), true);
+            entries.put(key, new Entry(resource.getId(), resource.getSelfHref(), System.currentTimeMillis()));
+            save();
+            return resource;
+        }
+    }
+
+    public Set<UUID> getCachedIds() {
+        return entries.values().stream().map(Entry::getId).collect(Collectors.toSet());
+    }
+
+    private CachedResource toResource(LinkedDTO response, boolean created) {
+        return new CachedResource(response.getUUIDFromLink(), response.getSelfHref(), created);
+    }
+
+    private synchronized void save() {
+        if (Objects.isNull(file)) {
+            return;
+        }
+        try {
+            objectMapper.writeValue(file.toFile(), entries);
+        } catch (IOException e) {
+            log.warn("Cannot persist producer resource cache to {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class Entry {
+        private UUID id;
+        private String selfHref;
+        private long validatedAt;
+    }
+}
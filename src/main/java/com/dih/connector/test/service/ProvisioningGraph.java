@@ -0,0 +1,119 @@
+package com.dih.connector.test.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Dependency graph of provisioning calls. Every step starts as soon as all of its dependencies are finished, so
+ * independent steps run concurrently. Steps have to be registered after their dependencies.
+ */
+@Slf4j
+public class ProvisioningGraph {
+    private final Map<String, Step<?>> steps = new LinkedHashMap<>();
+
+    public <T> Step<T> step(String name, Supplier<T> action, Step<?>... dependencies) {
+        var step = new Step<>(name, action, List.of(dependencies));
+        if (steps.putIfAbsent(name, step) != null) {
+            throw new IllegalArgumentException("Duplicate provisioning step " + name);
+        }
+        return step;
+    }
+
+    public Step<Void> step(String name, Runnable action, Step<?>... dependencies) {
+        return step(name, () -> {
+            action.run();
+            return null;
+        }, dependencies);
+    }
+
+    public void run(Executor executor) {
+        var start = System.nanoTime();
+        steps.values().forEach(step -> step.schedule(executor));
+        try {
+            CompletableFuture.allOf(steps.values().stream().map(s -> s.future).toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        } finally {
+            report(System.nanoTime() - start);
+        }
+    }
+
+    private void report(long wallNanos) {
+        var finish = new HashMap<Step<?>, Long>();
+        var previous = new HashMap<Step<?>, Step<?>>();
+        long sequential = 0;
+        Step<?> last = null;
+        for (var step : steps.values()) {
+            long ready = 0;
+            for (var dependency : step.dependencies) {
+                if (finish.get(dependency) >= ready) {
+                    ready = finish.get(dependency);
+                    previous.put(step, dependency);
+                }
+            }
+            finish.put(step, ready + step.durationNanos);
+            sequential += step.durationNanos;
+            if (last == null || finish.get(step) > finish.get(last)) {
+                last = step;
+            }
+        }
+        var criticalPath = new LinkedList<Step<?>>();
+        for (var step = last; step != null; step = previous.get(step)) {
+            criticalPath.addFirst(step);
+        }
+        log.info("Provisioning took {} ms, critical path {} ms ({}), sequential baseline {} ms",
+                TimeUnit.NANOSECONDS.toMillis(wallNanos),
+                last == null ? 0 : TimeUnit.NANOSECONDS.toMillis(finish.get(last)),
+                criticalPath.stream().map(s -> s.name).collect(Collectors.joining(" -> ")),
+                TimeUnit.NANOSECONDS.toMillis(sequential));
+        if (log.isDebugEnabled()) {
+            var lines = new ArrayList<String>();
+            steps.values().forEach(s -> lines.add(s.name + "=" + TimeUnit.NANOSECONDS.toMillis(s.durationNanos) + "ms"));
+            log.debug("Provisioning steps: {}", lines);
+        }
+    }
+
+    public static class Step<T> {
+        private final String name;
+        private final Supplier<T> action;
+        private final List<Step<?>> dependencies;
+        private volatile CompletableFuture<T> future;
+        private volatile long durationNanos;
+
+        private Step(String name, Supplier<T> action, List<Step<?>> dependencies) {
+            this.name = name;
+            this.action = action;
+            this.dependencies = dependencies;
+        }
+
+        public T get() {
+            return future.join();
+        }
+
+        private void schedule(Executor executor) {
+            var ready = CompletableFuture.allOf(dependencies.stream().map(d -> d.future).toArray(CompletableFuture[]::new));
+            future = ready.thenApplyAsync(v -> execute(), executor);
+        }
+
+        private T execute() {
+            var start = System.nanoTime();
+            try {
+                return action.get();
+            } finally {
+                durationNanos = System.nanoTime() - start;
+            }
+        }
+    }
+}
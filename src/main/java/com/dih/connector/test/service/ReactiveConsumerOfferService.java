@@ -0,0 +1,235 @@
+package com.dih.connector.test.service;
+
+import com.dih.connector.test.client.connector.JsonLdCompactingConverter;
+import com.dih.connector.test.client.connector.model.AgreementResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking variant of {@link ConsumerOfferService#consumeOffer} on the reactive WebClient, enabled with
+ * {@code consumer.client=reactive}. Artifact data is streamed and hashed buffer by buffer, at most
+ * {@code consumer.data.prefetch} buffers are requested from the connection ahead of the checksum. Only the consumer
+ * flow is reactive, producer calls such as {@code createOffer} and {@code registerOffer} stay on the blocking Feign
+ * clients and their threads, also where soak, workload, distributed and broker runs make them part of the load. Text
+ * artifacts are not supported and {@code consumer.data.download} does not apply, data is always streamed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "consumer.client", havingValue = "reactive")
+public class ReactiveConsumerOfferService {
+
+    @Value("${consumer.baseUrl}")
+    private URI consumerBaseUrl;
+
+    @Value("${producer.baseUrl}")
+    private URI producerBaseUrl;
+
+    @Value("${consumer.data.prefetch:32}")
+    private int prefetch;
+
+    @Value("${consumer.data.allArtifacts:false}")
+    private boolean allArtifacts;
+
+    @Value("${consumer.data.parallelism:4}")
+    private int parallelism;
+
+    @Value("${checksum.algorithm:md5}")
+    private ChecksumAlgorithm algorithm;
+
+    @Value("${consumer.data.text:false}")
+    private boolean isText;
+
+    @Value("${consumer.data.download:buffered}")
+    private DownloadMode downloadMode;
+
+    private final WebClient connectorWebClient;
+
+    private final ArtifactDownloader artifactDownloader;
+
+    private final AgreementCache agreementCache;
+
+    private final DescriptionCache descriptionCache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final JsonLdCompactingConverter jsonLdConverter = new JsonLdCompactingConverter(objectMapper);
+
+    @PostConstruct
+    public void init() {
+        if (isText) {
+            throw new RuntimeException("consumer.data.text is not supported with consumer.client=reactive");
+        }
+        if (downloadMode == DownloadMode.SEGMENTED || downloadMode == DownloadMode.FILE) {
+            log.warn("consumer.data.download={} is ignored with consumer.client=reactive, artifact data is streamed", downloadMode.name().toLowerCase());
+        }
+    }
+
+    public Mono<List<DownloadResult>> consumeOffer(UUID offerId) {
+        return consumeOffer(offerId, ConsumeStepListener.NONE)
+                .doOnNext(results -> {
+                    if (!allArtifacts) {
+                        log.info("Consumer data {}SUM={}", algorithm, results.get(0).getChecksum());
+                    }
+                });
+    }
+
+    public Mono<List<DownloadResult>> consumeOffer(UUID offerId, ConsumeStepListener listener) {
+        var descriptionUrl = ConsumerOfferService.descriptionUrl(consumerBaseUrl, producerBaseUrl, offerId);
+        return timed(ConsumeStep.DESCRIPTION, listener, descriptionCache.get(offerId, descriptionUrl, getDescription(descriptionUrl)))
+                .flatMap(description -> {
+                    var permission = ConsumerOfferService.permissionOf(description);
+                    var artifactIds = ConsumerOfferService.artifactIdsOf(description, allArtifacts);
+                    return Mono.justOrEmpty(agreementCache.find(offerId, artifactIds))
+                            .flatMap(cached -> consumeData(cached.getSelfHref(), cached.getRemoteId(), artifactIds.size(), listener)
+                                    .onErrorResume(WebClientResponseException.class, e -> {
+                                        if (!e.getStatusCode().is4xxClientError()) {
+                                            return Mono.error(e);
+                                        }
+                                        log.debug("Cached agreement {} was rejected with HTTP {}, negotiating a new one", cached.getSelfHref(), e.getRawStatusCode());
+                                        agreementCache.invalidate(offerId, artifactIds);
+                                        return Mono.empty();
+                                    })
+                                    .onErrorResume(ConsumerOfferService.IncompleteAgreementException.class, e -> {
+                                        log.debug("{}, negotiating a new one", e.getMessage());
+                                        agreementCache.invalidate(offerId, artifactIds);
+                                        return Mono.empty();
+                                    }))
+                            .switchIfEmpty(Mono.defer(() -> negotiateAndConsume(offerId, permission, artifactIds, listener)));
+                });
+    }
+
+    private Mono<List<DownloadResult>> negotiateAndConsume(UUID offerId, JsonNode permission, List<String> artifactIds, ConsumeStepListener listener) {
+        return timed(ConsumeStep.CONTRACT_NEGOTIATION, listener, negotiateContract(permission, artifactIds, offerId))
+                .doOnNext(agreement -> agreementCache.put(offerId, artifactIds, agreement))
+                .flatMap(agreement -> consumeData(agreement.getSelfHref(), agreement.getRemoteId(), artifactIds.size(), listener));
+    }
+
+    private Mono<List<DownloadResult>> consumeData(String agreementHref, String agreementUri, int artifactCount, ConsumeStepListener listener) {
+        if (!allArtifacts) {
+            return timed(ConsumeStep.ARTIFACT_LISTING, listener, getArtifacts(agreementHref + "/artifacts"))
+                    .map(artifacts -> ConsumerOfferService.dataUrl(artifacts, agreementUri))
+                    .flatMap(dataUrl -> timed(ConsumeStep.DATA_FETCH, listener, download(dataUrl)))
+                    .map(List::of);
+        }
+        return timed(ConsumeStep.ARTIFACT_LISTING, listener, listArtifacts(agreementHref))
+                .flatMap(hrefs -> hrefs.size() < artifactCount
+                        ? Mono.error(new ConsumerOfferService.IncompleteAgreementException(agreementHref, hrefs.size(), artifactCount))
+                        : Mono.just(hrefs))
+                .map(hrefs -> hrefs.stream().map(href -> ConsumerOfferService.artifactDataUrl(href, agreementUri)).collect(Collectors.toList()))
+                .flatMap(dataUrls -> timed(ConsumeStep.DATA_FETCH, listener, Mono.defer(() -> {
+                    var start = System.nanoTime();
+                    return Flux.fromIterable(dataUrls)
+                            .flatMapSequential(this::download, parallelism)
+                            .collectList()
+                            .doOnNext(results -> artifactDownloader.report(dataUrls, results, System.nanoTime() - start));
+                })));
+    }
+
+    private Mono<List<String>> listArtifacts(String agreementHref) {
+        return getArtifacts(agreementHref + "/artifacts")
+                .expand(page -> {
+                    var next = ConsumerOfferService.nextPage(page);
+                    return next == null ? Mono.empty() : getArtifacts(next);
+                })
+                .flatMapIterable(ConsumerOfferService::artifactHrefs)
+                .collectList();
+    }
+
+    private Mono<JsonNode> getDescription(String descriptionUrl) {
+        return connectorWebClient.post()
+                .uri(URI.create(descriptionUrl))
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .as(DataBufferUtils::join)
+                // JSON-LD compaction is CPU bound, keep it off the event loop
+                .publishOn(Schedulers.parallel())
+                .map(this::compact);
+    }
+
+    private JsonNode compact(DataBuffer buffer) {
+        // the stream releases the joined buffer when it is closed
+        try (var inputStream = buffer.asInputStream(true)) {
+            return jsonLdConverter.compact(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Mono<AgreementResponse> negotiateContract(JsonNode permission, List<String> artifactIds, UUID offerId) {
+        var body = ConsumerOfferService.getContractAgreementPayload(objectMapper, permission.get("@id").asText(), artifactIds);
+        return connectorWebClient.post()
+                .uri(URI.create(ConsumerOfferService.contractUrl(consumerBaseUrl, producerBaseUrl, offerId, artifactIds)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(AgreementResponse.class);
+    }
+
+    private Mono<JsonNode> getArtifacts(String artifactsUrl) {
+        return connectorWebClient.get()
+                .uri(URI.create(artifactsUrl))
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+
+    private Mono<DownloadResult> download(String dataUrl) {
+        return Mono.defer(() -> {
+            var start = System.nanoTime();
+            var hasher = algorithm.newHasher();
+            var bytes = new AtomicLong();
+            var firstByte = new AtomicLong();
+            return connectorWebClient.get()
+                    .uri(URI.create(dataUrl))
+                    .accept(MediaType.ALL)
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class)
+                    .limitRate(prefetch)
+                    .doOnNext(buffer -> {
+                        try {
+                            if (bytes.get() == 0) {
+                                firstByte.set(System.nanoTime() - start);
+                            }
+                            bytes.addAndGet(buffer.readableByteCount());
+                            hasher.update(buffer.asByteBuffer());
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .then(Mono.fromSupplier(() ->
+                            new DownloadResult(hasher.hex(), bytes.get(), firstByte.get(), System.nanoTime() - start, null)));
+        });
+    }
+
+    private static <T> Mono<T> timed(ConsumeStep step, ConsumeStepListener listener, Mono<T> call) {
+        return Mono.defer(() -> {
+            var start = System.nanoTime();
+            return call.doOnNext(result -> listener.onStep(step, System.nanoTime() - start));
+        });
+    }
+}
@@ -0,0 +1,143 @@
+package com.dih.connector.test.service;
+
+import com.dih.connector.test.payload.PayloadServer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Computes checksums of remote producer data in the background. Results are cached per URI and ETag, a cached
+ * source is revalidated with {@code If-None-Match} and not downloaded again as long as its ETag does not change.
+ * Payload URLs of the embedded {@link PayloadServer} are not downloaded at all, their checksum is computed from size
+ * and seed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RemoteChecksumService {
+
+    @Value("${checksum.algorithm:md5}")
+    private ChecksumAlgorithm algorithm;
+
+    @Value("${producer.checksum.cacheFile:#{null}}")
+    private Path cacheFile;
+
+    @Value("${consumer.data.bufferSize:65536}")
+    private int bufferSize;
+
+    private final ObjectProvider<PayloadServer> payloadServer;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> checksums = new ConcurrentHashMap<>();
+    private final Map<URI, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        executor = ExecutorFactory.newExecutor("checksum", 2, false);
+        if (Objects.nonNull(cacheFile) && Files.exists(cacheFile)) {
+            checksums.putAll(objectMapper.readValue(cacheFile.toFile(), new TypeReference<Map<String, String>>() { }));
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    public ChecksumAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public CompletableFuture<String> checksumAsync(URI uri) {
+        var future = inFlight.computeIfAbsent(uri, u -> CompletableFuture.supplyAsync(() -> checksum(u), executor));
+        // attached outside computeIfAbsent, a future that is already complete runs the removal right away
+        future.whenComplete((checksum, error) -> inFlight.remove(uri, future));
+        return future;
+    }
+
+    private String checksum(URI uri) {
+        var synthetic = Optional.ofNullable(payloadServer.getIfAvailable()).flatMap(server -> server.payload(uri));
+        if (synthetic.isPresent()) {
+            // generated locally, the same bytes the payload server streams to the producer
+            var key = algorithm + "|" + synthetic.get().path() + "|" + synthetic.get().etag();
+            if (!checksums.containsKey(key)) {
+                log.debug("Computing checksum of synthetic payload {}", synthetic.get().path());
+                checksums.put(key, synthetic.get().checksum(algorithm));
+                save();
+            }
+            return checksums.get(key);
+        }
+        try {
+            var connection = uri.toURL().openConnection();
+            var prefix = algorithm + "|" + uri + "|";
+            var cachedEtags = checksums.keySet().stream()
+                    .filter(key -> key.startsWith(prefix))
+                    .map(key -> key.substring(prefix.length()))
+                    .collect(Collectors.toList());
+            if (connection instanceof HttpURLConnection && !cachedEtags.isEmpty()) {
+                // the body is only sent when none of the cached ETags matches
+                connection.setRequestProperty("If-None-Match", String.join(", ", cachedEtags));
+                var http = (HttpURLConnection) connection;
+                if (http.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    var etag = Optional.ofNullable(http.getHeaderField("ETag")).orElse(cachedEtags.size() == 1 ? cachedEtags.get(0) : null);
+                    http.disconnect();
+                    if (checksums.containsKey(prefix + etag)) {
+                        log.debug("Using cached checksum of {} with ETag {}", uri, etag);
+                        return checksums.get(prefix + etag);
+                    }
+                    // not modified but the ETag is unknown, fetch the body unconditionally
+                    connection = uri.toURL().openConnection();
+                }
+            }
+            try (var is = connection.getInputStream()) {
+                var etag = connection.getHeaderField("ETag");
+                var hasher = algorithm.newHasher();
+                var buffer = new byte[bufferSize];
+                int read;
+                while ((read = is.read(buffer)) != -1) {
+                    hasher.update(buffer, 0, read);
+                }
+                var checksum = hasher.hex();
+                if (StringUtils.isNotBlank(etag)) {
+                    checksums.put(prefix + etag, checksum);
+                    save();
+                }
+                return checksum;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compute checksum of " + uri, e);
+        }
+    }
+
+    private synchronized void save() {
+        if (Objects.isNull(cacheFile)) {
+            return;
+        }
+        try {
+            objectMapper.writeValue(cacheFile.toFile(), checksums);
+        } catch (IOException e) {
+            log.warn("Cannot persist checksum cache to {}: {}", cacheFile, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.dih.connector.test.service;
+
+public enum RunMode {
+    SINGLE,
+    LOAD,
+    SOAK,
+    WORKLOAD,
+    CLEANUP,
+    COORDINATOR,
+    WORKER,
+    BROKER,
+    MOCK
+}
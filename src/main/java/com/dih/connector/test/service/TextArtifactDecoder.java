@@ -0,0 +1,107 @@
+package com.dih.connector.test.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes text artifact data chunk by chunk instead of building one {@link String}. The raw bytes are hashed with
+ * the configured {@link ChecksumAlgorithm} while decoding, characters are counted and only the first
+ * {@code consumer.data.previewChars} characters are kept for logging.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TextArtifactDecoder {
+
+    @Value("${consumer.data.bufferSize:65536}")
+    private int bufferSize;
+
+    @Value("${consumer.data.previewChars:256}")
+    private int previewChars;
+
+    @Value("${checksum.algorithm:md5}")
+    private ChecksumAlgorithm algorithm;
+
+    @Qualifier("utf16string")
+    private final RestTemplate restTemplateUtf16BEString;
+
+    public TextDecodeResult download(String dataUrl) {
+        var start = System.nanoTime();
+        var result = restTemplateUtf16BEString.execute(dataUrl, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.TEXT_PLAIN, MediaType.ALL)),
+                response -> {
+                    var contentType = response.getHeaders().getContentType();
+                    var charset = contentType != null && contentType.getCharset() != null
+                            ? contentType.getCharset() : StandardCharsets.UTF_16BE;
+                    return decode(response.getBody(), charset, start);
+                });
+        if (result == null) {
+            throw new RuntimeException("Empty response for " + dataUrl);
+        }
+        log.info("Decoded {} chars from {} bytes in {} ms, {} chars/s", result.getChars(), result.getBytes(),
+                TimeUnit.NANOSECONDS.toMillis(result.getDurationNanos()),
+                String.format("%.0f", result.getCharsPerSecond()));
+        return result;
+    }
+
+    private TextDecodeResult decode(InputStream inputStream, Charset charset, long start) throws IOException {
+        // malformed input is replaced like new String(bytes, charset) does
+        var decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        var hasher = algorithm.newHasher();
+        var bytes = ByteBuffer.allocate(bufferSize);
+        var chars = CharBuffer.allocate((int) Math.ceil(bufferSize * (double) decoder.maxCharsPerByte()) + 1);
+        var preview = new StringBuilder(Math.max(0, previewChars));
+        long byteCount = 0;
+        long charCount = 0;
+        try (var body = inputStream) {
+            int read;
+            while ((read = body.read(bytes.array(), bytes.position(), bytes.remaining())) != -1) {
+                hasher.update(bytes.array(), bytes.position(), read);
+                byteCount += read;
+                bytes.position(bytes.position() + read);
+                bytes.flip();
+                charCount += drain(decoder.decode(bytes, chars, false), decoder, chars, preview);
+                // an incomplete sequence at the end of the chunk stays in the buffer for the next read
+                bytes.compact();
+            }
+            bytes.flip();
+            charCount += drain(decoder.decode(bytes, chars, true), decoder, chars, preview);
+            charCount += drain(decoder.flush(chars), decoder, chars, preview);
+        }
+        return new TextDecodeResult(hasher.hex(), byteCount, charCount, preview.toString(), System.nanoTime() - start);
+    }
+
+    private int drain(CoderResult coderResult, CharsetDecoder decoder, CharBuffer chars, StringBuilder preview) {
+        if (coderResult.isOverflow()) {
+            throw new IllegalStateException("Character buffer too small for " + decoder.charset());
+        }
+        chars.flip();
+        var count = chars.remaining();
+        var missing = previewChars - preview.length();
+        if (missing > 0) {
+            preview.append(chars, 0, Math.min(missing, count));
+        }
+        chars.clear();
+        return count;
+    }
+}
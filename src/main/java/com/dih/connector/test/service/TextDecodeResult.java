@@ -0,0 +1,22 @@
+package com.dih.connector.test.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TextDecodeResult {
+    private String checksum;
+    private long bytes;
+    private long chars;
+    private String preview;
+    private long durationNanos;
+
+    public double getCharsPerSecond() {
+        return durationNanos == 0 ? 0 : chars * 1_000_000_000d / durationNanos;
+    }
+
+    public double getBytesPerSecond() {
+        return durationNanos == 0 ? 0 : bytes * 1_000_000_000d / durationNanos;
+    }
+}
@@ -0,0 +1,93 @@
+package com.dih.connector.test.client.connector;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+    @Test
+    void staysClosedBelowMinCalls() throws Exception {
+        var breaker = new CircuitBreaker("test", 10, 4, 0.5, Duration.ofHours(1));
+        for (int i = 0; i < 3; i++) {
+            breaker.record(breaker.acquire(), false);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensAtFailureRateThreshold() throws Exception {
+        var breaker = new CircuitBreaker("test", 4, 4, 0.5, Duration.ofHours(1));
+        breaker.record(breaker.acquire(), true);
+        breaker.record(breaker.acquire(), false);
+        breaker.record(breaker.acquire(), true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.record(breaker.acquire(), false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(breaker::acquire).isInstanceOf(CircuitBreaker.CircuitOpenException.class);
+    }
+
+    @Test
+    void windowForgetsOldOutcomes() throws Exception {
+        var breaker = new CircuitBreaker("test", 4, 4, 0.5, Duration.ofHours(1));
+        breaker.record(breaker.acquire(), false);
+        for (int i = 0; i < 4; i++) {
+            breaker.record(breaker.acquire(), true);
+        }
+        // the failure slid out of the window, a single new one stays below the threshold
+        breaker.record(breaker.acquire(), false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void admitsSingleProbeWhenHalfOpen() throws Exception {
+        var breaker = openBreaker(Duration.ZERO);
+        var probe = breaker.acquire();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(breaker::acquire).isInstanceOf(CircuitBreaker.CircuitOpenException.class);
+        breaker.record(probe, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.acquire();
+    }
+
+    @Test
+    void failedProbeOpensAgain() throws Exception {
+        var breaker = openBreaker(Duration.ZERO);
+        breaker.record(breaker.acquire(), false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void staleSuccessDoesNotCloseHalfOpenBreaker() throws Exception {
+        var breaker = new CircuitBreaker("test", 2, 2, 0.5, Duration.ZERO);
+        var stale = breaker.acquire();
+        breaker.record(breaker.acquire(), false);
+        breaker.record(breaker.acquire(), false);
+        var probe = breaker.acquire();
+        breaker.record(stale, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.record(probe, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void staleFailureIsNotCountedAfterReset() throws Exception {
+        var breaker = new CircuitBreaker("test", 2, 1, 0.5, Duration.ZERO);
+        var stale = breaker.acquire();
+        breaker.record(breaker.acquire(), false);
+        breaker.record(breaker.acquire(), true);
+        breaker.record(stale, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private static CircuitBreaker openBreaker(Duration openDuration) throws Exception {
+        var breaker = new CircuitBreaker("test", 2, 2, 0.5, openDuration);
+        breaker.record(breaker.acquire(), false);
+        breaker.record(breaker.acquire(), false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+}
@@ -0,0 +1,152 @@
+package com.dih.connector.test.client.connector;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HedgingInterceptorTest {
+    private static final int MIN_SAMPLES = 5;
+
+    private final ConcurrentLinkedQueue<Long> delays = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private OkHttpClient delegate;
+    private OkHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/offers", exchange -> {
+            requests.incrementAndGet();
+            try (exchange) {
+                TimeUnit.MILLISECONDS.sleep(delays.isEmpty() ? 0 : delays.poll());
+                var body = "ok".getBytes();
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+        delegate = new OkHttpClient();
+        client = new OkHttpClient.Builder()
+                .addInterceptor(new HedgingInterceptor(delegate, new ConnectorMetrics(meterRegistry), 50,
+                        Duration.ofMillis(50), MIN_SAMPLES, Duration.ofMinutes(1)))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        delegate.dispatcher().executorService().shutdownNow();
+        client.dispatcher().executorService().shutdownNow();
+    }
+
+    @Test
+    void hedgeAnswersWhenPrimaryIsSlow() throws IOException {
+        warmUp();
+        delays.add(2000L);
+        var start = System.nanoTime();
+        try (var response = client.newCall(request()).execute()) {
+            assertThat(response.body().string()).isEqualTo("ok");
+        }
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        assertThat(hedges("fired")).isEqualTo(1);
+        assertThat(hedges("won")).isEqualTo(1);
+    }
+
+    @Test
+    void primaryThatLostTheRaceRunsToCompletion() throws Exception {
+        warmUp();
+        delays.add(500L);
+        client.newCall(request()).execute().close();
+        // only the primary's latency feeds the hedge delay, so it is not cancelled when the hedge wins
+        assertThat(delegate.dispatcher().runningCallsCount()).isEqualTo(1);
+        awaitNoRunningCopies();
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() throws IOException {
+        warmUp();
+        try (var response = client.newCall(request()).execute()) {
+            assertThat(response.code()).isEqualTo(200);
+        }
+        assertThat(requests.get()).isEqualTo(MIN_SAMPLES + 1);
+        assertThat(hedges("fired")).isZero();
+    }
+
+    @Test
+    void cancellingTheCallerCancelsBothCopies() throws Exception {
+        warmUp();
+        delays.add(3000L);
+        delays.add(3000L);
+        var call = client.newCall(request());
+        var canceller = Executors.newSingleThreadScheduledExecutor();
+        try {
+            canceller.schedule(call::cancel, 300, TimeUnit.MILLISECONDS);
+            var start = System.nanoTime();
+            assertThatThrownBy(call::execute).isInstanceOf(IOException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        } finally {
+            canceller.shutdownNow();
+        }
+        awaitNoRunningCopies();
+    }
+
+    @Test
+    void callTimeoutCancelsBothCopies() throws Exception {
+        warmUp();
+        delays.add(3000L);
+        delays.add(3000L);
+        var call = client.newBuilder().callTimeout(Duration.ofMillis(300)).build().newCall(request());
+        var start = System.nanoTime();
+        assertThatThrownBy(call::execute).isInstanceOf(IOException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        awaitNoRunningCopies();
+    }
+
+    private void warmUp() throws IOException {
+        for (int i = 0; i < MIN_SAMPLES; i++) {
+            client.newCall(request()).execute().close();
+        }
+    }
+
+    private void awaitNoRunningCopies() throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (delegate.dispatcher().runningCallsCount() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(delegate.dispatcher().runningCallsCount()).isZero();
+    }
+
+    private Request request() {
+        return new Request.Builder().url("http://localhost:" + server.getAddress().getPort() + "/api/offers").build();
+    }
+
+    private double hedges(String result) {
+        var counter = meterRegistry.find(ConnectorMetrics.HEDGES).tag("result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,41 @@
+package com.dih.connector.test.client.connector;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBudgetTest {
+
+    @Test
+    void startsFullAndRunsDry() {
+        var budget = new RetryBudget(0.1, 2);
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    void depositsRefillByRatio() {
+        var budget = new RetryBudget(0.5, 1);
+        assertThat(budget.tryWithdraw()).isTrue();
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isFalse();
+        budget.deposit();
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    void balanceIsCapped() {
+        var budget = new RetryBudget(1, 3);
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+        var retries = 0;
+        while (budget.tryWithdraw()) {
+            retries++;
+        }
+        assertThat(retries).isEqualTo(3);
+    }
+}
@@ -0,0 +1,64 @@
+package com.dih.connector.test.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalWriterTest {
+
+    @Test
+    void encodedHistogramDecodesToTheSameCounts() {
+        var histogram = histogram(1, 5, 5, 120, 3000);
+        var decoded = IntervalWriter.decode(IntervalWriter.encode(histogram));
+        assertThat(decoded).isEqualTo(histogram);
+        assertThat(decoded.getTotalCount()).isEqualTo(5);
+        assertThat(decoded.getValueAtPercentile(50)).isEqualTo(histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    void jsonRowsCarryAMergeableHistogram(@TempDir Path directory) throws IOException {
+        var file = directory.resolve("intervals.json");
+        try (var writer = new IntervalWriter(file, IntervalFormat.JSON)) {
+            writer.write(Instant.EPOCH, 1, "consumeOffer", "service", histogram(10, 20), 1, 1);
+            writer.write(Instant.EPOCH, 2, "consumeOffer", "service", histogram(30), 0, 1);
+        }
+        var merged = new Histogram(3);
+        var objectMapper = new ObjectMapper();
+        for (var line : Files.readAllLines(file)) {
+            var row = objectMapper.readTree(line);
+            assertThat(row.get("operation").asText()).isEqualTo("consumeOffer");
+            merged.add(IntervalWriter.decode(row.get("histogram").asText()));
+        }
+        assertThat(merged.getTotalCount()).isEqualTo(3);
+        assertThat(merged.getMaxValue()).isEqualTo(merged.highestEquivalentValue(TimeUnit.MILLISECONDS.toNanos(30)));
+    }
+
+    @Test
+    void csvStartsWithHeader(@TempDir Path directory) throws IOException {
+        var file = directory.resolve("intervals.csv");
+        try (var writer = new IntervalWriter(file, IntervalFormat.CSV)) {
+            writer.write(Instant.EPOCH, 1, "consumeOffer", "response", histogram(10), 0, 1);
+        }
+        var lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("timestamp,");
+        assertThat(lines.get(1).split(",")).hasSameSizeAs(lines.get(0).split(","));
+    }
+
+    private static Histogram histogram(long... millis) {
+        var histogram = new Histogram(3);
+        for (var value : millis) {
+            histogram.recordValue(TimeUnit.MILLISECONDS.toNanos(value));
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,78 @@
+package com.dih.connector.test.payload;
+
+import com.dih.connector.test.service.ChecksumAlgorithm;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntheticPayloadTest {
+    private static final int SIZE = 3 * SyntheticPayload.CHUNK_SIZE + 1234;
+
+    @Test
+    void parsesSingleRanges() {
+        assertThat(SyntheticPayload.parseRange("bytes=10-19")).containsExactly(10, 19);
+        assertThat(SyntheticPayload.parseRange("bytes=10-")).containsExactly(10, Long.MAX_VALUE);
+        assertThat(SyntheticPayload.parseRange("bytes= 5 - 5 ")).containsExactly(5, 5);
+    }
+
+    @Test
+    void ignoresUnsupportedAndInvalidRanges() {
+        assertThat(SyntheticPayload.parseRange(null)).isNull();
+        assertThat(SyntheticPayload.parseRange("bytes=-500")).isNull();
+        assertThat(SyntheticPayload.parseRange("bytes=0-1,5-6")).isNull();
+        assertThat(SyntheticPayload.parseRange("items=0-1")).isNull();
+        assertThat(SyntheticPayload.parseRange("bytes=abc-")).isNull();
+        assertThat(SyntheticPayload.parseRange("bytes=99999999999999999999-")).isNull();
+        assertThat(SyntheticPayload.parseRange("bytes=10-5")).isNull();
+    }
+
+    @Test
+    void rangesMatchTheWholePayload() throws IOException {
+        var payload = new SyntheticPayload(SIZE, 7);
+        var whole = write(payload, 0, SIZE - 1);
+        assertThat(whole).hasSize(SIZE);
+        // within a chunk, across chunk boundaries and up to the end
+        for (var range : new long[][]{{0, 0}, {100, 200}, {SyntheticPayload.CHUNK_SIZE - 10, 2L * SyntheticPayload.CHUNK_SIZE + 10}, {SIZE - 50, SIZE - 1}}) {
+            assertThat(write(payload, range[0], range[1])).isEqualTo(Arrays.copyOfRange(whole, (int) range[0], (int) range[1] + 1));
+        }
+        assertThat(write(new SyntheticPayload(SIZE, 7), 0, SIZE - 1)).isEqualTo(whole);
+    }
+
+    @Test
+    void checksumMatchesWrittenBytes() throws IOException {
+        var payload = new SyntheticPayload(SIZE, 7);
+        assertThat(payload.checksum(ChecksumAlgorithm.MD5)).isEqualTo(DigestUtils.md5Hex(write(payload, 0, SIZE - 1)));
+    }
+
+    @Test
+    void neighbouringSeedsAreUnrelated() {
+        var chunk = new byte[SyntheticPayload.CHUNK_SIZE];
+        var shifted = new byte[SyntheticPayload.CHUNK_SIZE];
+        new SyntheticPayload(SIZE, 1).chunk(31, chunk);
+        new SyntheticPayload(SIZE, 2).chunk(0, shifted);
+        assertThat(chunk).isNotEqualTo(shifted);
+        new SyntheticPayload(SIZE, 2).chunk(31, shifted);
+        assertThat(chunk).isNotEqualTo(shifted);
+    }
+
+    @Test
+    void parsesItsOwnPath() {
+        var payload = new SyntheticPayload(SIZE, -3);
+        assertThat(SyntheticPayload.parse(URI.create("http://localhost:18090" + payload.path()))).contains(payload);
+        assertThat(SyntheticPayload.parse(URI.create("http://localhost:18090/payload/100"))).contains(new SyntheticPayload(100, 0));
+        assertThat(SyntheticPayload.parse(URI.create("http://localhost:18090/data/100"))).isEmpty();
+        assertThat(payload.etag()).isNotEqualTo(new SyntheticPayload(SIZE, -2).etag());
+    }
+
+    private static byte[] write(SyntheticPayload payload, long from, long to) throws IOException {
+        var out = new ByteArrayOutputStream();
+        payload.write(out, from, to, length -> { });
+        return out.toByteArray();
+    }
+}
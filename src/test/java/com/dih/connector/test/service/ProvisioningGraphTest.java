@@ -0,0 +1,83 @@
+package com.dih.connector.test.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProvisioningGraphTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void stepsRunAfterTheirDependencies() {
+        var order = Collections.synchronizedList(new ArrayList<String>());
+        var graph = new ProvisioningGraph();
+        var offer = graph.step("offer", () -> {
+            order.add("offer");
+            return "o";
+        });
+        var catalog = graph.step("catalog", () -> {
+            order.add("catalog");
+            return "c";
+        });
+        var link = graph.step("link", () -> {
+            order.add("link");
+            return offer.get() + catalog.get();
+        }, offer, catalog);
+        graph.run(executor);
+        assertThat(link.get()).isEqualTo("oc");
+        assertThat(order).hasSize(3).endsWith("link");
+    }
+
+    @Test
+    void independentStepsRunConcurrently() {
+        var started = new CountDownLatch(2);
+        var graph = new ProvisioningGraph();
+        for (var name : new String[]{"rule", "contract"}) {
+            // each step only finishes once both have started
+            graph.step(name, () -> {
+                started.countDown();
+                try {
+                    return started.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        graph.run(executor);
+        assertThat(started.getCount()).isZero();
+    }
+
+    @Test
+    void failureIsRethrownAndDependentsAreSkipped() {
+        var dependentRan = new AtomicBoolean();
+        var graph = new ProvisioningGraph();
+        var failing = graph.step("registerOffer", () -> {
+            throw new IllegalStateException("boom");
+        });
+        graph.step("linkCatalogOffer", () -> dependentRan.set(true), failing);
+        assertThatThrownBy(() -> graph.run(executor)).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+        assertThat(dependentRan).isFalse();
+    }
+
+    @Test
+    void rejectsDuplicateStepNames() {
+        var graph = new ProvisioningGraph();
+        graph.step("offer", () -> null);
+        assertThatThrownBy(() -> graph.step("offer", () -> null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}